@@ -1,25 +1,36 @@
 package com.mobiletest.config;
 
+import io.appium.java_client.MobileCommand;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
 import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.codec.w3c.W3CHttpCommandCodec;
+import org.openqa.selenium.remote.codec.w3c.W3CHttpResponseCodec;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
  * AppiumConfig class manages the Appium driver configuration and initialization.
- * This class follows the Singleton pattern to ensure only one driver instance exists.
+ * Each TestNG worker thread checks out its own device session from a shared DriverPool.
  */
 public class AppiumConfig {
     
-    private static AndroidDriver driver;
-    private static Properties properties;
+    private static final ThreadLocal<String> leasedDevice = new ThreadLocal<>();
+    private static volatile DriverPool driverPool;
+    private static volatile Properties properties;
     private static final String CONFIG_FILE = "src/test/resources/config.properties";
+    private static final String DEFAULT_DEVICE = "default";
+    // Parsed once; -1 until first read
+    private static volatile int explicitWait = -1;
+    private static volatile int implicitWait = -1;
     
     /**
      * Private constructor to prevent instantiation
@@ -31,49 +42,133 @@ public class AppiumConfig {
      * Load configuration properties from file
      */
     public static Properties loadProperties() {
-        if (properties == null) {
-            properties = new Properties();
-            try (FileInputStream fis = new FileInputStream(CONFIG_FILE)) {
-                properties.load(fis);
-            } catch (IOException e) {
-                System.err.println("Config file not found. Using default values.");
-                setDefaultProperties();
+        Properties loaded = properties;
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (AppiumConfig.class) {
+            if (properties == null) {
+                Properties fileProperties = new Properties();
+                try (FileInputStream fis = new FileInputStream(CONFIG_FILE)) {
+                    fileProperties.load(fis);
+                    properties = fileProperties;
+                } catch (IOException e) {
+                    System.err.println("Config file not found. Using default values.");
+                    properties = defaultProperties();
+                }
             }
+            return properties;
         }
-        return properties;
     }
     
     /**
-     * Set default properties if config file is not found
+     * Build the default properties used if config file is not found.
+     * They are filled before anything can see them, since the lock-free read in
+     * loadProperties may return them to other threads as soon as they are assigned.
+     * @return Default properties
      */
-    private static void setDefaultProperties() {
-        properties = new Properties();
-        properties.setProperty("appium.server.url", "http://127.0.0.1:4723");
-        properties.setProperty("platform.name", "Android");
-        properties.setProperty("device.name", "Android Emulator");
-        properties.setProperty("automation.name", "UiAutomator2");
-        properties.setProperty("app.package", "com.example.app");
-        properties.setProperty("app.activity", "com.example.app.MainActivity");
-        properties.setProperty("implicit.wait", "10");
-        properties.setProperty("explicit.wait", "20");
+    private static Properties defaultProperties() {
+        Properties defaults = new Properties();
+        defaults.setProperty("appium.server.url", "http://127.0.0.1:4723");
+        defaults.setProperty("platform.name", "Android");
+        defaults.setProperty("device.name", "Android Emulator");
+        defaults.setProperty("automation.name", "UiAutomator2");
+        defaults.setProperty("app.package", "com.example.app");
+        defaults.setProperty("app.activity", "com.example.app.MainActivity");
+        defaults.setProperty("implicit.wait", "0");
+        defaults.setProperty("explicit.wait", "20");
+        return defaults;
     }
     
     /**
-     * Initialize and return the AndroidDriver instance
+     * Get the AndroidDriver owned by the current thread, checking out a device if needed
      * @return AndroidDriver instance
      */
     public static AndroidDriver getDriver() {
-        if (driver == null) {
-            initializeDriver();
+        String device = leasedDevice.get();
+        if (device == null) {
+            device = getDriverPool().checkout();
+            leasedDevice.set(device);
+        }
+        return getDriverPool().getSession(device);
+    }
+    
+    /**
+     * Get the device leased by the current thread
+     * @return Device UDID, or null if the thread holds no device
+     */
+    public static String getLeasedDevice() {
+        return leasedDevice.get();
+    }
+    
+    /**
+     * Return the current thread's device to the pool without quitting its session
+     */
+    public static void releaseDriver() {
+        String device = leasedDevice.get();
+        if (device != null) {
+            leasedDevice.remove();
+            getDriverPool().checkin(device);
+        }
+    }
+    
+    /**
+     * Start creating all configured device sessions in the background.
+     * On by default; does nothing when "session.prewarm" is set to false.
+     */
+    public static void prewarmSessions() {
+        if (Boolean.parseBoolean(loadProperties().getProperty("session.prewarm", "true"))) {
+            getDriverPool().prewarm();
+        }
+    }
+    
+    /**
+     * Get the shared driver pool, creating it on first use
+     * @return DriverPool instance
+     */
+    public static DriverPool getDriverPool() {
+        DriverPool pool = driverPool;
+        if (pool == null) {
+            synchronized (AppiumConfig.class) {
+                pool = driverPool;
+                if (pool == null) {
+                    pool = new DriverPool(getDeviceUdids(), AppiumConfig::initializeDriver,
+                            Long.parseLong(loadProperties().getProperty("device.checkout.timeout", "600")));
+                    driverPool = pool;
+                }
+            }
         }
-        return driver;
+        return pool;
     }
     
     /**
-     * Initialize the Appium driver with configured capabilities
+     * Get the configured device UDIDs
+     * Reads the comma separated "device.udids" list, falling back to "device.udid"
+     * @return List of device keys, never empty
      */
-    private static void initializeDriver() {
+    public static List<String> getDeviceUdids() {
         loadProperties();
+        String udids = properties.getProperty("device.udids", properties.getProperty("device.udid", ""));
+        List<String> devices = new ArrayList<>();
+        for (String udid : udids.split(",")) {
+            if (!udid.trim().isEmpty()) {
+                devices.add(udid.trim());
+            }
+        }
+        if (devices.isEmpty()) {
+            devices.add(DEFAULT_DEVICE);
+        }
+        return devices;
+    }
+    
+    /**
+     * Initialize an Appium session for a device with configured capabilities
+     * @param device Device UDID, or the default key to let Appium pick a device
+     * @return New AndroidDriver session
+     */
+    private static AndroidDriver initializeDriver(String device) {
+        loadProperties();
+        int deviceIndex = getDeviceUdids().indexOf(device);
         
         UiAutomator2Options options = new UiAutomator2Options();
         options.setPlatformName(properties.getProperty("platform.name", "Android"));
@@ -83,6 +178,13 @@ public class AppiumConfig {
         options.setAppActivity(properties.getProperty("app.activity"));
         options.setNoReset(Boolean.parseBoolean(properties.getProperty("no.reset", "true")));
         
+        // Give each session its own device and host ports so parallel sessions don't collide
+        if (!DEFAULT_DEVICE.equals(device)) {
+            options.setUdid(device);
+        }
+        options.setSystemPort(Integer.parseInt(properties.getProperty("system.port.base", "8200")) + deviceIndex);
+        options.setMjpegServerPort(Integer.parseInt(properties.getProperty("mjpeg.server.port.base", "7810")) + deviceIndex);
+        
         // Set app path if provided
         String appPath = properties.getProperty("app.path");
         if (appPath != null && !appPath.isEmpty()) {
@@ -91,11 +193,23 @@ public class AppiumConfig {
         
         try {
             String serverUrl = properties.getProperty("appium.server.url", "http://127.0.0.1:4723");
-            driver = new AndroidDriver(new URL(serverUrl), options);
+            AndroidDriver driver = null;
+            if (isSessionReuseEnabled()) {
+                // Keep the session alive between runs long enough to reattach to it
+                options.setNewCommandTimeout(Duration.ofSeconds(
+                        Long.parseLong(properties.getProperty("session.reuse.idle.timeout", "1800"))));
+                driver = reattachDriver(device, serverUrl);
+            }
+            if (driver == null) {
+                driver = new AndroidDriver(newCommandExecutor(serverUrl), options);
+                if (isSessionReuseEnabled()) {
+                    getSessionStore().save(device, serverUrl, driver.getSessionId().toString());
+                }
+            }
             
-            // Set implicit wait
-            int implicitWait = Integer.parseInt(properties.getProperty("implicit.wait", "10"));
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+            // Set implicit wait once per session; 0 keeps every lookup to one round trip
+            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(getImplicitWait()));
+            return driver;
             
         } catch (MalformedURLException e) {
             throw new RuntimeException("Invalid Appium server URL: " + e.getMessage());
@@ -103,12 +217,92 @@ public class AppiumConfig {
     }
     
     /**
-     * Quit the driver and clean up resources
+     * Reattach to a session stored by a previous run
+     * @param device Device key
+     * @param serverUrl Appium server URL
+     * @return Attached AndroidDriver, or null if no healthy session was stored
+     */
+    private static AndroidDriver reattachDriver(String device, String serverUrl) throws MalformedURLException {
+        String sessionId = getSessionStore().find(device, serverUrl);
+        if (sessionId == null) {
+            return null;
+        }
+        
+        String baseUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+        // No new-session handshake picks the protocol here, so set the W3C codecs up front
+        TimedCommandExecutor executor = newCommandExecutor(serverUrl);
+        executor.setCommandCodec(new W3CHttpCommandCodec());
+        executor.setResponseCodec(new W3CHttpResponseCodec());
+        AndroidDriver driver = new AttachedAndroidDriver(new URL(baseUrl + "/session/" + sessionId),
+                properties.getProperty("automation.name", "UiAutomator2"), executor);
+        try {
+            // Health check - a dead or expired session fails on its first command
+            driver.currentActivity();
+            System.out.println("Reattached to Appium session " + sessionId + " on " + device);
+            return driver;
+        } catch (Exception e) {
+            System.err.println("Stored Appium session " + sessionId + " is gone. Creating a new one.");
+            getSessionStore().remove(device);
+            return null;
+        }
+    }
+    
+    /**
+     * Create the command executor every session talks through: timed, with per-command HTTP timeouts and gzip
+     * @param serverUrl Appium server URL
+     * @return Command executor
+     */
+    private static TimedCommandExecutor newCommandExecutor(String serverUrl) throws MalformedURLException {
+        return new TimedCommandExecutor(MobileCommand.commandRepository, new URL(serverUrl),
+                new AppiumHttpClientFactory(properties));
+    }
+    
+    /**
+     * AndroidDriver attached to an existing session that sends its commands through the given executor
+     */
+    private static final class AttachedAndroidDriver extends AndroidDriver {
+        
+        /**
+         * Constructor
+         * @param sessionAddress Session URL, server URL plus /session/{id}
+         * @param automationName Automation name of the session
+         * @param executor Command executor using W3C codecs
+         */
+        AttachedAndroidDriver(URL sessionAddress, String automationName, HttpCommandExecutor executor) {
+            super(sessionAddress, automationName);
+            setCommandExecutor(executor);
+        }
+    }
+    
+    /**
+     * Check if sessions should be kept alive and reattached across runs
+     * @return true if session reuse is enabled
+     */
+    private static boolean isSessionReuseEnabled() {
+        return Boolean.parseBoolean(loadProperties().getProperty("session.reuse", "false"));
+    }
+    
+    /**
+     * Get the store holding sessions kept alive across runs
+     * @return SessionStore instance
+     */
+    private static SessionStore getSessionStore() {
+        return new SessionStore(loadProperties().getProperty("session.store.file", ".appium-sessions.properties"));
+    }
+    
+    /**
+     * Quit all pooled sessions and clean up resources.
+     * With session reuse enabled the sessions are left running for the next run.
      */
     public static void quitDriver() {
-        if (driver != null) {
-            driver.quit();
-            driver = null;
+        leasedDevice.remove();
+        DriverPool pool = driverPool;
+        if (pool != null) {
+            if (isSessionReuseEnabled()) {
+                pool.detachAll();
+            } else {
+                pool.quitAll();
+            }
         }
     }
     
@@ -127,7 +321,20 @@ public class AppiumConfig {
      * @return Explicit wait timeout in seconds
      */
     public static int getExplicitWait() {
-        loadProperties();
-        return Integer.parseInt(properties.getProperty("explicit.wait", "20"));
+        if (explicitWait < 0) {
+            explicitWait = Integer.parseInt(loadProperties().getProperty("explicit.wait", "20"));
+        }
+        return explicitWait;
+    }
+    
+    /**
+     * Get implicit wait timeout
+     * @return Implicit wait timeout in seconds
+     */
+    public static int getImplicitWait() {
+        if (implicitWait < 0) {
+            implicitWait = Integer.parseInt(loadProperties().getProperty("implicit.wait", "0"));
+        }
+        return implicitWait;
     }
 }
@@ -0,0 +1,172 @@
+package com.mobiletest.config;
+
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * AppiumHttpClientFactory builds the HTTP client used by the Appium command executor.
+ * Each timeout class has its own keep-alive client with that class's read timeout, and every
+ * command is sent on the calling thread through the client of its class, so a hung page-source
+ * call can run for minutes while a stuck status check fails fast.
+ * Responses are requested gzip-compressed and decompressed transparently.
+ */
+public class AppiumHttpClientFactory implements HttpClient.Factory {
+
+    /**
+     * Read timeout classes for W3C commands
+     */
+    enum TimeoutClass {
+        FAST, DEFAULT, SLOW, SESSION
+    }
+
+    private final HttpClient.Factory delegate;
+    private final Duration connectTimeout;
+    private final Map<TimeoutClass, Duration> readTimeouts = new EnumMap<>(TimeoutClass.class);
+    private final boolean gzip;
+
+    /**
+     * Constructor reads HTTP settings from configuration properties
+     * @param properties Configuration properties
+     */
+    public AppiumHttpClientFactory(Properties properties) {
+        this.delegate = HttpClient.Factory.createDefault();
+        this.connectTimeout = seconds(properties, "http.connect.timeout", 10);
+        this.readTimeouts.put(TimeoutClass.FAST, seconds(properties, "http.read.timeout.fast", 15));
+        this.readTimeouts.put(TimeoutClass.DEFAULT, seconds(properties, "http.read.timeout.default", 60));
+        this.readTimeouts.put(TimeoutClass.SLOW, seconds(properties, "http.read.timeout.slow", 180));
+        this.readTimeouts.put(TimeoutClass.SESSION, seconds(properties, "http.read.timeout.session", 600));
+        this.gzip = Boolean.parseBoolean(properties.getProperty("http.gzip", "true"));
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        Map<TimeoutClass, HttpClient> clients = new EnumMap<>(TimeoutClass.class);
+        for (Map.Entry<TimeoutClass, Duration> entry : readTimeouts.entrySet()) {
+            ClientConfig classConfig = config.connectionTimeout(connectTimeout).readTimeout(entry.getValue());
+            if (gzip) {
+                classConfig = classConfig.withFilter(gzipFilter());
+            }
+            clients.put(entry.getKey(), delegate.createClient(classConfig));
+        }
+        return new ClassifiedHttpClient(clients);
+    }
+
+    /**
+     * Pick the timeout class for a request from its method and path
+     * @param request W3C command request
+     * @return Timeout class
+     */
+    static TimeoutClass classify(HttpRequest request) {
+        String path = request.getUri();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        if (request.getMethod() == HttpMethod.POST && path.endsWith("/session")) {
+            return TimeoutClass.SESSION;
+        }
+        if (path.endsWith("/source") || path.contains("/screenshot") || path.endsWith("/actions")
+                || path.contains("/execute/") || path.contains("/appium/")) {
+            return TimeoutClass.SLOW;
+        }
+        if (path.endsWith("/status") || path.endsWith("/timeouts") || request.getMethod() == HttpMethod.DELETE) {
+            return TimeoutClass.FAST;
+        }
+        return TimeoutClass.DEFAULT;
+    }
+
+    /**
+     * Filter that asks for gzip responses and decompresses them
+     * @return Gzip filter
+     */
+    private static Filter gzipFilter() {
+        return next -> request -> {
+            request.setHeader("Accept-Encoding", "gzip");
+            HttpResponse response = next.execute(request);
+            if ("gzip".equalsIgnoreCase(response.getHeader("Content-Encoding"))) {
+                byte[] compressed = Contents.bytes(response.getContent());
+                response.removeHeader("Content-Encoding");
+                response.removeHeader("Content-Length");
+                response.setContent(Contents.bytes(gunzip(compressed)));
+            }
+            return response;
+        };
+    }
+
+    /**
+     * Decompress a gzip body
+     * @param compressed Compressed body
+     * @return Decompressed body
+     */
+    private static byte[] gunzip(byte[] compressed) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read a duration in seconds from configuration
+     * @param properties Configuration properties
+     * @param key Property key
+     * @param defaultSeconds Default value in seconds
+     * @return Duration
+     */
+    private static Duration seconds(Properties properties, String key, int defaultSeconds) {
+        return Duration.ofSeconds(Long.parseLong(properties.getProperty(key, String.valueOf(defaultSeconds))));
+    }
+
+    /**
+     * HttpClient that sends each request through the client of its timeout class
+     */
+    private static class ClassifiedHttpClient implements HttpClient {
+
+        private final Map<TimeoutClass, HttpClient> clients;
+
+        ClassifiedHttpClient(Map<TimeoutClass, HttpClient> clients) {
+            this.clients = clients;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return clients.get(classify(request)).execute(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return clients.get(TimeoutClass.DEFAULT).openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            for (HttpClient client : clients.values()) {
+                client.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.mobiletest.config;
+
+import com.mobiletest.pages.PageCache;
+import io.appium.java_client.android.AndroidDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * DriverPool hands out one AndroidDriver session per device to TestNG workers.
+ * A device is checked out by exactly one thread at a time, so its session is
+ * created lazily by the owning thread without any further locking, or ahead of
+ * time by {@link #prewarm()}.
+ */
+public class DriverPool {
+
+    private final List<String> devices;
+    private final BlockingQueue<String> idleDevices;
+    private final Map<String, AndroidDriver> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionStartupMillis = new ConcurrentHashMap<>();
+    private final Function<String, AndroidDriver> sessionFactory;
+    private final long checkoutTimeoutSeconds;
+
+    /**
+     * Constructor
+     * @param devices Device keys (UDIDs) managed by this pool
+     * @param sessionFactory Creates a new session for a device key
+     * @param checkoutTimeoutSeconds Maximum time to wait for a free device
+     */
+    public DriverPool(List<String> devices, Function<String, AndroidDriver> sessionFactory,
+                      long checkoutTimeoutSeconds) {
+        if (devices.isEmpty()) {
+            throw new IllegalArgumentException("Driver pool needs at least one device");
+        }
+        this.devices = Collections.unmodifiableList(devices);
+        this.idleDevices = new LinkedBlockingQueue<>(devices);
+        this.sessionFactory = sessionFactory;
+        this.checkoutTimeoutSeconds = checkoutTimeoutSeconds;
+    }
+
+    /**
+     * Check out a free device, creating its session if it has none yet
+     * @return Device key now owned by the calling thread
+     */
+    public String checkout() {
+        String device;
+        try {
+            device = idleDevices.poll(checkoutTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free device");
+        }
+        if (device == null) {
+            throw new IllegalStateException("No device became free within " + checkoutTimeoutSeconds + "s");
+        }
+
+        if (!sessions.containsKey(device)) {
+            try {
+                createSession(device);
+            } catch (RuntimeException | Error e) {
+                // Give the device back so another worker can retry it
+                idleDevices.offer(device);
+                throw e;
+            }
+        }
+        return device;
+    }
+
+    /**
+     * Start creating sessions for all idle devices in parallel.
+     * Each device becomes available to {@link #checkout()} as soon as its own session is ready,
+     * so the first worker can start while slower devices are still booting their sessions.
+     */
+    public void prewarm() {
+        List<String> pending = new ArrayList<>();
+        idleDevices.drainTo(pending);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(pending.size(), runnable -> {
+            Thread thread = new Thread(runnable, "session-prewarm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String device : pending) {
+            CompletableFuture.runAsync(() -> {
+                if (!sessions.containsKey(device)) {
+                    createSession(device);
+                }
+            }, executor).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    // Checkout will retry the session creation lazily
+                    System.err.println("Failed to pre-warm session for " + device + ": " + error.getMessage());
+                }
+                idleDevices.offer(device);
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Create a session for a device and record how long it took
+     * @param device Device key
+     */
+    private void createSession(String device) {
+        long start = System.nanoTime();
+        AndroidDriver driver = sessionFactory.apply(device);
+        sessionStartupMillis.put(device, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        sessions.put(device, driver);
+    }
+
+    /**
+     * Get session creation latency per device
+     * @return Unmodifiable map of device key to startup time in milliseconds
+     */
+    public Map<String, Long> getSessionStartupMillis() {
+        return Collections.unmodifiableMap(sessionStartupMillis);
+    }
+
+    /**
+     * Return a device to the pool, keeping its session alive for the next worker
+     * @param device Device key previously returned by {@link #checkout()}
+     */
+    public void checkin(String device) {
+        if (device != null && devices.contains(device)) {
+            idleDevices.offer(device);
+        }
+    }
+
+    /**
+     * Get the session of a checked-out device
+     * @param device Device key
+     * @return AndroidDriver session, or null if none was created
+     */
+    public AndroidDriver getSession(String device) {
+        return sessions.get(device);
+    }
+
+    /**
+     * Get all device keys managed by this pool
+     * @return Unmodifiable list of device keys
+     */
+    public List<String> getDevices() {
+        return devices;
+    }
+
+    /**
+     * Quit every session in the pool
+     */
+    public void quitAll() {
+        for (Map.Entry<String, AndroidDriver> entry : sessions.entrySet()) {
+            // Read the id before quitting; a quit driver reports none
+            PageCache.evict(entry.getValue().getSessionId());
+            try {
+                entry.getValue().quit();
+            } catch (Exception e) {
+                System.err.println("Failed to quit session for " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        sessions.clear();
+    }
+
+    /**
+     * Forget every session in the pool without quitting it
+     */
+    public void detachAll() {
+        for (AndroidDriver driver : sessions.values()) {
+            PageCache.evict(driver.getSessionId());
+        }
+        sessions.clear();
+    }
+}
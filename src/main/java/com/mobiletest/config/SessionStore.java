@@ -0,0 +1,89 @@
+package com.mobiletest.config;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * SessionStore persists Appium session ids per device to a local properties file,
+ * so a later run can reattach to a session instead of creating a new one.
+ */
+public class SessionStore {
+
+    private final String storeFile;
+
+    /**
+     * Constructor
+     * @param storeFile Path of the properties file holding the sessions
+     */
+    public SessionStore(String storeFile) {
+        this.storeFile = storeFile;
+    }
+
+    /**
+     * Look up a stored session for a device on a given server
+     * @param device Device key
+     * @param serverUrl Appium server URL the session must belong to
+     * @return Stored session id, or null if none matches
+     */
+    public synchronized String find(String device, String serverUrl) {
+        Properties sessions = load();
+        String sessionId = sessions.getProperty(device + ".session.id");
+        String storedUrl = sessions.getProperty(device + ".server.url");
+        if (sessionId == null || !serverUrl.equals(storedUrl)) {
+            return null;
+        }
+        return sessionId;
+    }
+
+    /**
+     * Store the session for a device
+     * @param device Device key
+     * @param serverUrl Appium server URL
+     * @param sessionId Session id
+     */
+    public synchronized void save(String device, String serverUrl, String sessionId) {
+        Properties sessions = load();
+        sessions.setProperty(device + ".session.id", sessionId);
+        sessions.setProperty(device + ".server.url", serverUrl);
+        write(sessions);
+    }
+
+    /**
+     * Forget the stored session for a device
+     * @param device Device key
+     */
+    public synchronized void remove(String device) {
+        Properties sessions = load();
+        sessions.remove(device + ".session.id");
+        sessions.remove(device + ".server.url");
+        write(sessions);
+    }
+
+    /**
+     * Load stored sessions from file
+     * @return Stored sessions, empty if the file does not exist
+     */
+    private Properties load() {
+        Properties sessions = new Properties();
+        try (FileInputStream fis = new FileInputStream(storeFile)) {
+            sessions.load(fis);
+        } catch (IOException e) {
+            // No stored sessions yet
+        }
+        return sessions;
+    }
+
+    /**
+     * Write stored sessions to file
+     * @param sessions Sessions to write
+     */
+    private void write(Properties sessions) {
+        try (FileOutputStream fos = new FileOutputStream(storeFile)) {
+            sessions.store(fos, "Appium sessions kept alive for reattaching");
+        } catch (IOException e) {
+            System.err.println("Failed to save Appium sessions: " + e.getMessage());
+        }
+    }
+}
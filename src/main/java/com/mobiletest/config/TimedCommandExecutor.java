@@ -0,0 +1,39 @@
+package com.mobiletest.config;
+
+import com.mobiletest.utils.CommandMetrics;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandInfo;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * TimedCommandExecutor decorates the Appium command executor with latency recording.
+ * Every W3C command sent by the driver is timed and recorded in CommandMetrics.
+ */
+public class TimedCommandExecutor extends AppiumCommandExecutor {
+
+    /**
+     * Constructor
+     * @param commands Command repository of the driver
+     * @param serverUrl Appium server URL
+     * @param httpClientFactory Factory for the underlying HTTP client
+     */
+    public TimedCommandExecutor(Map<String, CommandInfo> commands, URL serverUrl,
+                                HttpClient.Factory httpClientFactory) {
+        super(commands, serverUrl, httpClientFactory);
+    }
+
+    @Override
+    public Response execute(Command command) {
+        long start = System.nanoTime();
+        try {
+            return super.execute(command);
+        } finally {
+            CommandMetrics.record(command.getName(), System.nanoTime() - start);
+        }
+    }
+}
@@ -5,6 +5,9 @@ import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * AddItemPage handles adding new items (for admin/seller functionality).
  */
@@ -64,18 +67,20 @@ public class AddItemPage extends BasePage {
     
     public HomePage saveItem() {
         click(saveItemButton);
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
     
     public HomePage cancel() {
         click(cancelButton);
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
     
     public HomePage addNewItem(String name, String description, String price) {
-        enterItemName(name);
-        enterDescription(description);
-        enterPrice(price);
+        Map<WebElement, String> form = new LinkedHashMap<>();
+        form.put(itemNameInput, name);
+        form.put(itemDescriptionInput, description);
+        form.put(itemPriceInput, price);
+        fillForm(form);
         return saveItem();
     }
 }
@@ -1,15 +1,25 @@
 package com.mobiletest.pages;
 
 import com.mobiletest.config.AppiumConfig;
+import com.mobiletest.utils.CommandMetrics;
+import com.mobiletest.utils.Gestures;
+import com.mobiletest.utils.InputUtils;
+import com.mobiletest.utils.LocatorHealth;
+import com.mobiletest.utils.ScrollUtils;
 import com.mobiletest.utils.WaitUtils;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 
+import java.lang.reflect.Field;
 import java.time.Duration;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * BasePage is the parent class for all Page Objects.
@@ -18,8 +28,18 @@ import java.util.List;
  */
 public abstract class BasePage {
     
+    // How long page elements are waited for before a lookup gives up
+    private static final int ELEMENT_TIMEOUT_SECONDS = 10;
+    
     protected AndroidDriver driver;
     protected WaitUtils waitUtils;
+    protected ScrollUtils scrollUtils;
+    protected InputUtils inputUtils;
+    protected Gestures gestures;
+    private final String pageName = getClass().getSimpleName();
+    private final Map<WebElement, By> elementLocators = new IdentityHashMap<>();
+    private final ElementHandleCache handles = new ElementHandleCache();
+    private PageSnapshot snapshot;
     
     /**
      * Constructor initializes driver and page elements
@@ -28,7 +48,86 @@ public abstract class BasePage {
     public BasePage(AndroidDriver driver) {
         this.driver = driver;
         this.waitUtils = new WaitUtils(driver);
-        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(10)), this);
+        this.scrollUtils = new ScrollUtils(driver);
+        this.inputUtils = new InputUtils(driver);
+        this.gestures = new Gestures(driver);
+        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(ELEMENT_TIMEOUT_SECONDS)), this);
+        registerElementLocators();
+        trackPage();
+    }
+    
+    /**
+     * Map each element proxy of this page to the exact locator of its field
+     */
+    private void registerElementLocators() {
+        for (Map.Entry<Field, By> entry : LocatorRegistry.locatorsOf(getClass()).entrySet()) {
+            try {
+                Object value = entry.getKey().get(this);
+                if (value instanceof WebElement) {
+                    elementLocators.put((WebElement) value, entry.getValue());
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read page field " + entry.getKey().getName(), e);
+            }
+        }
+    }
+    
+    /**
+     * Attribute the driver commands that follow on this thread to this page
+     */
+    protected void trackPage() {
+        CommandMetrics.setCurrentPage(pageName);
+    }
+    
+    /**
+     * Get the page object for the next screen of this session
+     * @param pageClass Page object class
+     * @return Cached page instance
+     */
+    protected <T extends BasePage> T page(Class<T> pageClass) {
+        // Leaving this screen - its element handles will not survive
+        leaveScreenState();
+        // Let the transition finish before the next page acts on the screen; a no-op unless enabled
+        waitUtils.waitForPageLoad();
+        return PageCache.get(driver, pageClass);
+    }
+    
+    /**
+     * Called by the page cache when this page is shown again.
+     * Element handles from the previous visit belong to a screen that is gone.
+     */
+    void onReuse() {
+        leaveScreenState();
+        trackPage();
+    }
+    
+    /**
+     * Switch this page to snapshot mode.
+     * Fetches the page source once; until the next click, text entry or navigation,
+     * displayed, text, enabled and attribute checks on id, accessibility id, class name
+     * and XPath locators are answered from the snapshot without driver calls.
+     * @return The snapshot now in use
+     */
+    public PageSnapshot takeSnapshot() {
+        trackPage();
+        snapshot = PageSnapshot.capture(driver);
+        return snapshot;
+    }
+    
+    /**
+     * Leave snapshot mode so the following checks go to the device again
+     */
+    public void discardSnapshot() {
+        snapshot = null;
+    }
+    
+    /**
+     * Check whether a query on this locator can be answered from the active snapshot
+     * @param locator Element locator, may be null
+     * @return true if a snapshot is active and supports the locator
+     */
+    private boolean inSnapshot(By locator) {
+        return snapshot != null && locator != null && PageSnapshot.supports(locator);
     }
     
     /**
@@ -36,8 +135,23 @@ public abstract class BasePage {
      * @param element WebElement to click
      */
     protected void click(WebElement element) {
-        waitUtils.waitForElementClickable(getLocator(element));
-        element.click();
+        trackPage();
+        snapshot = null;
+        By locator = getLocator(element);
+        if (locator == null) {
+            waitUtils.waitForElementClickable(element);
+            element.click();
+            return;
+        }
+        boolean cached = handles.contains(locator);
+        handles.apply(locator, waitUtils::waitForElementClickable, handle -> {
+            if (cached) {
+                // A cached handle skips the lookup but must still be clickable now
+                waitUtils.waitForElementClickable(handle);
+            }
+            handle.click();
+            return null;
+        });
     }
     
     /**
@@ -45,6 +159,8 @@ public abstract class BasePage {
      * @param locator Element locator
      */
     protected void click(By locator) {
+        trackPage();
+        snapshot = null;
         waitUtils.waitForElementClickable(locator).click();
     }
     
@@ -54,9 +170,12 @@ public abstract class BasePage {
      * @param text Text to enter
      */
     protected void enterText(WebElement element, String text) {
-        waitUtils.waitForElementVisible(getLocator(element));
-        element.clear();
-        element.sendKeys(text);
+        trackPage();
+        snapshot = null;
+        withVisible(element, handle -> {
+            inputUtils.enterText(handle, text);
+            return null;
+        });
     }
     
     /**
@@ -65,9 +184,40 @@ public abstract class BasePage {
      * @param text Text to enter
      */
     protected void enterText(By locator, String text) {
+        trackPage();
+        snapshot = null;
         WebElement element = waitUtils.waitForElementVisible(locator);
-        element.clear();
-        element.sendKeys(text);
+        inputUtils.enterText(element, text);
+    }
+    
+    /**
+     * Fill several input fields of this page as one batch.
+     * One snapshot tells which fields are on screen; each of those is resolved by its own
+     * locator in a single lookup, its value is set with one command, and the soft keyboard is
+     * dismissed once at the end instead of after every field. Fields that are not on screen,
+     * or can't be matched unambiguously, are scrolled to and filled the usual way.
+     * @param values Page fields mapped to the text to enter, in fill order
+     */
+    protected void fillForm(Map<WebElement, String> values) {
+        trackPage();
+        snapshot = null;
+        PageSnapshot screen = PageSnapshot.capture(driver);
+        for (Map.Entry<WebElement, String> field : values.entrySet()) {
+            By locator = getLocator(field.getKey());
+            String value = field.getValue();
+            if (locator != null && PageSnapshot.supports(locator) && screen.findAll(locator).length == 1) {
+                handles.apply(locator, this::lookUp, handle -> {
+                    inputUtils.setValue(handle, value);
+                    return null;
+                });
+                continue;
+            }
+            if (locator != null && !waitUtils.isElementPresent(locator)) {
+                scrollUtils.scrollTo(locator);
+            }
+            enterText(field.getKey(), value);
+        }
+        inputUtils.hideKeyboard();
     }
     
     /**
@@ -76,8 +226,11 @@ public abstract class BasePage {
      * @return Text content of the element
      */
     protected String getText(WebElement element) {
-        waitUtils.waitForElementVisible(getLocator(element));
-        return element.getText();
+        trackPage();
+        if (inSnapshot(getLocator(element))) {
+            return snapshot.getText(getLocator(element));
+        }
+        return withVisible(element, WebElement::getText);
     }
     
     /**
@@ -86,6 +239,10 @@ public abstract class BasePage {
      * @return Text content of the element
      */
     protected String getText(By locator) {
+        trackPage();
+        if (inSnapshot(locator)) {
+            return snapshot.getText(locator);
+        }
         return waitUtils.waitForElementVisible(locator).getText();
     }
     
@@ -95,8 +252,16 @@ public abstract class BasePage {
      * @return true if element is displayed
      */
     protected boolean isDisplayed(WebElement element) {
+        trackPage();
+        By locator = getLocator(element);
+        if (inSnapshot(locator)) {
+            return snapshot.isDisplayed(locator);
+        }
         try {
-            return element.isDisplayed();
+            if (locator == null) {
+                return element.isDisplayed();
+            }
+            return handles.apply(locator, this::lookUp, WebElement::isDisplayed);
         } catch (Exception e) {
             return false;
         }
@@ -108,16 +273,43 @@ public abstract class BasePage {
      * @return true if element is displayed
      */
     protected boolean isDisplayed(By locator) {
+        trackPage();
+        if (inSnapshot(locator)) {
+            return snapshot.isDisplayed(locator);
+        }
         return waitUtils.isElementDisplayed(locator, 5);
     }
     
+    /**
+     * Check that no element matches the locator.
+     * Returns after a single lookup instead of waiting for the element to appear,
+     * so use it for "should not be shown" assertions.
+     * @param locator Element locator
+     * @return true if no element matches
+     */
+    protected boolean isAbsent(By locator) {
+        trackPage();
+        if (inSnapshot(locator)) {
+            return !snapshot.isPresent(locator);
+        }
+        return waitUtils.isElementAbsent(locator);
+    }
+    
     /**
      * Check if element is enabled
      * @param element WebElement
      * @return true if element is enabled
      */
     protected boolean isEnabled(WebElement element) {
-        return element.isEnabled();
+        trackPage();
+        By locator = getLocator(element);
+        if (inSnapshot(locator)) {
+            return snapshot.isEnabled(locator);
+        }
+        if (locator == null) {
+            return element.isEnabled();
+        }
+        return handles.apply(locator, this::lookUp, WebElement::isEnabled);
     }
     
     /**
@@ -126,6 +318,7 @@ public abstract class BasePage {
      * @return WebElement once visible
      */
     protected WebElement waitForElement(By locator) {
+        trackPage();
         return waitUtils.waitForElementVisible(locator);
     }
     
@@ -136,6 +329,7 @@ public abstract class BasePage {
      * @return WebElement once visible
      */
     protected WebElement waitForElement(By locator, int timeoutSeconds) {
+        trackPage();
         return waitUtils.waitForElementVisible(locator, timeoutSeconds);
     }
     
@@ -145,7 +339,13 @@ public abstract class BasePage {
      * @return List of WebElements
      */
     protected List<WebElement> findElements(By locator) {
-        return driver.findElements(locator);
+        trackPage();
+        long start = System.nanoTime();
+        try {
+            return driver.findElements(locator);
+        } finally {
+            LocatorHealth.record(locator, System.nanoTime() - start, 1, true);
+        }
     }
     
     /**
@@ -155,45 +355,206 @@ public abstract class BasePage {
      * @return Attribute value
      */
     protected String getAttribute(WebElement element, String attribute) {
-        return element.getAttribute(attribute);
+        trackPage();
+        By locator = getLocator(element);
+        if (inSnapshot(locator)) {
+            return snapshot.getAttribute(locator, attribute);
+        }
+        if (locator == null) {
+            return element.getAttribute(attribute);
+        }
+        return handles.apply(locator, this::lookUp, handle -> handle.getAttribute(attribute));
     }
     
     /**
      * Navigate back
      */
     protected void navigateBack() {
+        trackPage();
+        leaveScreenState();
         driver.navigate().back();
     }
     
     /**
-     * Scroll to element (simple implementation)
+     * Scroll down until an element is in view
      * @param locator Element locator
+     * @return The element once in view
      */
-    protected void scrollToElement(By locator) {
-        // UiAutomator scroll command
-        String scrollCommand = "new UiScrollable(new UiSelector().scrollable(true)).scrollIntoView(" +
-                "new UiSelector().text(\"" + locator.toString() + "\"))";
-        try {
-            driver.findElement(By.xpath("//*"));
-        } catch (Exception ignored) {
-        }
+    protected WebElement scrollToElement(By locator) {
+        trackPage();
+        leaveScreenState();
+        return scrollUtils.scrollTo(locator);
+    }
+    
+    /**
+     * Scroll until an element is in view, with direction and swipe bound
+     * @param locator Element locator
+     * @param direction Scroll direction
+     * @param maxSwipes Maximum number of swipes
+     * @return The element once in view
+     */
+    protected WebElement scrollToElement(By locator, ScrollUtils.Direction direction, int maxSwipes) {
+        trackPage();
+        leaveScreenState();
+        return scrollUtils.scrollTo(locator, direction, maxSwipes);
+    }
+    
+    /**
+     * Scroll down until an element with the given resource id is in view
+     * @param resourceId Resource id, with or without package prefix
+     * @return The element once in view
+     */
+    protected WebElement scrollToId(String resourceId) {
+        trackPage();
+        leaveScreenState();
+        return scrollUtils.scrollToId(resourceId);
+    }
+    
+    /**
+     * Scroll down until an element with the given text is in view
+     * @param text Exact text
+     * @return The element once in view
+     */
+    protected WebElement scrollToText(String text) {
+        trackPage();
+        leaveScreenState();
+        return scrollUtils.scrollToText(text);
+    }
+    
+    /**
+     * Swipe inside an element so its content scrolls in a direction
+     * @param element Element to swipe in, e.g. a list or carousel
+     * @param direction Scroll direction
+     */
+    protected void swipe(WebElement element, ScrollUtils.Direction direction) {
+        trackPage();
+        Rectangle bounds = boundsOf(element);
+        leaveScreenState();
+        gestures.swipe(bounds, direction);
+    }
+    
+    /**
+     * Fling an element so its content keeps scrolling with momentum
+     * @param element Element to fling, e.g. a list
+     * @param direction Scroll direction
+     */
+    protected void fling(WebElement element, ScrollUtils.Direction direction) {
+        trackPage();
+        Rectangle bounds = boundsOf(element);
+        leaveScreenState();
+        gestures.fling(bounds, direction);
+    }
+    
+    /**
+     * Long-press the center of an element
+     * @param element Element to press
+     */
+    protected void longPress(WebElement element) {
+        trackPage();
+        Rectangle bounds = boundsOf(element);
+        snapshot = null;
+        gestures.longPress(Gestures.center(bounds));
+    }
+    
+    /**
+     * Drag one element onto another
+     * @param source Element to pick up
+     * @param target Element to drop onto
+     */
+    protected void dragAndDrop(WebElement source, WebElement target) {
+        trackPage();
+        Rectangle from = boundsOf(source);
+        Rectangle to = boundsOf(target);
+        leaveScreenState();
+        gestures.dragAndDrop(Gestures.center(from), Gestures.center(to));
+    }
+    
+    /**
+     * Two-finger pinch on an element
+     * @param element Element to pinch, e.g. an image
+     * @param zoomIn true to spread the fingers apart, false to pinch them together
+     */
+    protected void pinch(WebElement element, boolean zoomIn) {
+        trackPage();
+        Rectangle bounds = boundsOf(element);
+        leaveScreenState();
+        gestures.pinch(bounds, zoomIn);
     }
     
     /**
-     * Helper method to get locator from WebElement
-     * Note: This is a simplified approach
+     * Get the on-screen bounds of an element for a gesture.
+     * Taken from the active snapshot when possible, otherwise from the cached or freshly
+     * resolved element handle, so a gesture needs at most one lookup.
      * @param element WebElement
-     * @return By locator
+     * @return Element bounds
+     */
+    private Rectangle boundsOf(WebElement element) {
+        By locator = getLocator(element);
+        if (inSnapshot(locator)) {
+            return snapshot.getBounds(locator);
+        }
+        if (locator == null) {
+            return element.getRect();
+        }
+        return handles.apply(locator, waitUtils::waitForElementVisible, WebElement::getRect);
+    }
+    
+    /**
+     * Create a crawler that reads a whole recycler list of this page
+     * @param listLocator Locator of the list container, or null for the first scrollable view
+     * @param rowLocator Locator of one row
+     * @param titleLocator Locator of the title inside a row
+     * @param priceLocator Locator of the price inside a row
+     * @return List crawler
+     */
+    protected ListCrawler listCrawler(By listLocator, By rowLocator, By titleLocator, By priceLocator) {
+        trackPage();
+        leaveScreenState();
+        return new ListCrawler(driver, scrollUtils, listLocator, rowLocator, titleLocator, priceLocator);
+    }
+    
+    /**
+     * Drop cached element handles and the snapshot before the screen changes or its content moves.
+     * List rows get recycled while scrolling, so a handle could silently point at another item.
+     */
+    private void leaveScreenState() {
+        handles.clear();
+        snapshot = null;
+    }
+    
+    /**
+     * Look up one element, waiting for it to be present.
+     * The session runs without an implicit wait, so the wait is explicit; the lookup is
+     * recorded in {@link LocatorHealth}.
+     * @param locator Element locator
+     * @return Element
+     */
+    private WebElement lookUp(By locator) {
+        return waitUtils.waitForElementPresent(locator, ELEMENT_TIMEOUT_SECONDS);
+    }
+    
+    /**
+     * Get the exact locator of a page element from the locator registry
+     * @param element WebElement declared as an {@code @AndroidFindBy} field of this page
+     * @return By locator, or null for elements that are not page fields (e.g. list items)
      */
     private By getLocator(WebElement element) {
-        String elementString = element.toString();
-        // Extract locator from element string representation
-        // This is a simplified approach - in production, use PageFactory annotations
-        if (elementString.contains("id:")) {
-            String id = elementString.substring(elementString.indexOf("id:") + 3).replaceAll("[\\]\\}]", "").trim();
-            return By.id(id);
-        }
-        return By.xpath("//*");
+        return elementLocators.get(element);
+    }
+    
+    /**
+     * Run an action on a page element once it is visible.
+     * A known page field is resolved once by its locator and the handle reused by later calls.
+     * @param element WebElement
+     * @param action Action to run on the visible element
+     * @return Result of the action
+     */
+    private <T> T withVisible(WebElement element, Function<WebElement, T> action) {
+        By locator = getLocator(element);
+        if (locator == null) {
+            return action.apply(waitUtils.waitForElementVisible(element));
+        }
+        return handles.apply(locator, waitUtils::waitForElementVisible, action);
     }
     
     /**
@@ -62,11 +62,11 @@ public class CartPage extends BasePage {
     
     public CheckoutPage proceedToCheckout() {
         click(checkoutButton);
-        return new CheckoutPage(driver);
+        return page(CheckoutPage.class);
     }
     
     public HomePage navigateBack() {
         navigateBack();
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
 }
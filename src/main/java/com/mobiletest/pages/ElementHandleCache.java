@@ -0,0 +1,61 @@
+package com.mobiletest.pages;
+
+import com.mobiletest.utils.LocatorHealth;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * ElementHandleCache keeps the resolved element of each locator for the screen currently shown.
+ * The element found by a wait is reused for the action and any follow-up reads, so a
+ * wait-then-act sequence costs one lookup instead of one per call on a PageFactory proxy.
+ * A handle that has gone stale is dropped and resolved again transparently.
+ */
+class ElementHandleCache {
+
+    private final Map<By, WebElement> handles = new HashMap<>();
+
+    /**
+     * Run an action on the element of a locator, resolving it only when no live handle is cached
+     * @param locator Element locator
+     * @param resolver Looks the element up (usually an explicit wait) when there is no live handle
+     * @param action Action to run on the resolved element
+     * @return Result of the action
+     */
+    <T> T apply(By locator, Function<By, WebElement> resolver, Function<WebElement, T> action) {
+        WebElement handle = handles.get(locator);
+        if (handle != null) {
+            try {
+                return action.apply(handle);
+            } catch (StaleElementReferenceException | NoSuchElementException e) {
+                // The screen changed under us - fall through and look the element up again
+                handles.remove(locator);
+                LocatorHealth.recordRetry(locator);
+            }
+        }
+        handle = resolver.apply(locator);
+        handles.put(locator, handle);
+        return action.apply(handle);
+    }
+
+    /**
+     * Check whether a live handle may be cached for a locator
+     * @param locator Element locator
+     * @return true if a handle is cached
+     */
+    boolean contains(By locator) {
+        return handles.containsKey(locator);
+    }
+
+    /**
+     * Forget every cached handle, e.g. after navigating to another screen
+     */
+    void clear() {
+        handles.clear();
+    }
+}
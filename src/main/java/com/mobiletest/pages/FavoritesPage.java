@@ -46,11 +46,11 @@ public class FavoritesPage extends BasePage {
         if (index < items.size()) {
             click(items.get(index));
         }
-        return new ItemDetailPage(driver);
+        return page(ItemDetailPage.class);
     }
     
     public HomePage navigateBack() {
         navigateBack();
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
 }
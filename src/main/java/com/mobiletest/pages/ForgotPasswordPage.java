@@ -75,6 +75,6 @@ public class ForgotPasswordPage extends BasePage {
     
     public LoginPage navigateBackToLogin() {
         click(backToLoginLink);
-        return new LoginPage(driver);
+        return page(LoginPage.class);
     }
 }
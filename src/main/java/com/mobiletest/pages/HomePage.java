@@ -69,6 +69,9 @@ public class HomePage extends BasePage {
     private final By welcomeMessageLocator = By.id("com.example.app:id/welcome_message");
     private final By homeToolbarLocator = By.id("com.example.app:id/home_toolbar");
     private final By itemCardsLocator = By.id("com.example.app:id/item_card");
+    private final By itemListLocator = By.id("com.example.app:id/item_list");
+    private final By itemTitleLocator = By.id("com.example.app:id/item_title");
+    private final By itemPriceLocator = By.id("com.example.app:id/item_price");
     
     /**
      * Constructor
@@ -87,6 +90,14 @@ public class HomePage extends BasePage {
         return isDisplayed(homeToolbarLocator);
     }
     
+    /**
+     * Check right away whether the home page is shown, without waiting for it
+     * @return true if the home toolbar is on screen
+     */
+    public boolean isPageLoadedNow() {
+        return !isAbsent(homeToolbarLocator);
+    }
+    
     /**
      * Get welcome message text
      * @return Welcome message
@@ -132,7 +143,7 @@ public class HomePage extends BasePage {
         // Submit search
         driver.pressKey(new io.appium.java_client.android.nativekey.KeyEvent(
                 io.appium.java_client.android.nativekey.AndroidKey.ENTER));
-        return new SearchResultsPage(driver);
+        return page(SearchResultsPage.class);
     }
     
     /**
@@ -141,7 +152,7 @@ public class HomePage extends BasePage {
      */
     public ProfilePage navigateToProfile() {
         click(profileIcon);
-        return new ProfilePage(driver);
+        return page(ProfilePage.class);
     }
     
     /**
@@ -150,7 +161,7 @@ public class HomePage extends BasePage {
      */
     public SettingsPage navigateToSettings() {
         click(settingsIcon);
-        return new SettingsPage(driver);
+        return page(SettingsPage.class);
     }
     
     /**
@@ -159,7 +170,7 @@ public class HomePage extends BasePage {
      */
     public NotificationPage clickNotifications() {
         click(notificationIcon);
-        return new NotificationPage(driver);
+        return page(NotificationPage.class);
     }
     
     /**
@@ -170,6 +181,23 @@ public class HomePage extends BasePage {
         return findElements(itemCardsLocator).size();
     }
     
+    /**
+     * Read the whole item feed, scrolling through it screen by screen
+     * @param maxItems Stop after this many items
+     * @return Distinct items in feed order
+     */
+    public List<ListCrawler.ListItem> getAllItems(int maxItems) {
+        return listCrawler(itemListLocator, itemCardsLocator, itemTitleLocator, itemPriceLocator).collect(maxItems);
+    }
+    
+    /**
+     * Count every item of the feed, not just the ones on screen
+     * @return Number of distinct items
+     */
+    public int getTotalItemCount() {
+        return listCrawler(itemListLocator, itemCardsLocator, itemTitleLocator, itemPriceLocator).count();
+    }
+    
     /**
      * Click on first item
      * @return ItemDetailPage instance
@@ -178,7 +206,7 @@ public class HomePage extends BasePage {
         if (!itemCards.isEmpty()) {
             click(itemCards.get(0));
         }
-        return new ItemDetailPage(driver);
+        return page(ItemDetailPage.class);
     }
     
     /**
@@ -191,7 +219,7 @@ public class HomePage extends BasePage {
         if (index < items.size()) {
             click(items.get(index));
         }
-        return new ItemDetailPage(driver);
+        return page(ItemDetailPage.class);
     }
     
     /**
@@ -200,7 +228,7 @@ public class HomePage extends BasePage {
      */
     public AddItemPage clickAddButton() {
         click(addButton);
-        return new AddItemPage(driver);
+        return page(AddItemPage.class);
     }
     
     /**
@@ -209,7 +237,7 @@ public class HomePage extends BasePage {
      */
     public FavoritesPage navigateToFavorites() {
         click(navFavorites);
-        return new FavoritesPage(driver);
+        return page(FavoritesPage.class);
     }
     
     /**
@@ -218,7 +246,7 @@ public class HomePage extends BasePage {
      */
     public CartPage navigateToCart() {
         click(navCart);
-        return new CartPage(driver);
+        return page(CartPage.class);
     }
     
     /**
@@ -228,7 +256,7 @@ public class HomePage extends BasePage {
     public LoginPage logout() {
         click(menuButton);
         click(logoutButton);
-        return new LoginPage(driver);
+        return page(LoginPage.class);
     }
     
     /**
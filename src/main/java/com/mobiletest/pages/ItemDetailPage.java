@@ -70,6 +70,16 @@ public class ItemDetailPage extends BasePage {
         return isDisplayed(itemImage);
     }
     
+    public ItemDetailPage zoomIntoImage() {
+        pinch(itemImage, true);
+        return this;
+    }
+    
+    public ItemDetailPage zoomOutOfImage() {
+        pinch(itemImage, false);
+        return this;
+    }
+    
     public ItemDetailPage addToCart() {
         click(addToCartButton);
         return this;
@@ -106,6 +116,6 @@ public class ItemDetailPage extends BasePage {
     
     public HomePage navigateBack() {
         click(backButton);
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
 }
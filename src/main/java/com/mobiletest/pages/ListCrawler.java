@@ -0,0 +1,311 @@
+package com.mobiletest.pages;
+
+import com.mobiletest.config.AppiumConfig;
+import com.mobiletest.utils.ScrollUtils;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ListCrawler walks a recycler list one screen at a time and reports every item exactly once.
+ * Each screen costs one page-source fetch and one scroll gesture; items are read from the
+ * snapshot into plain {@link ListItem} records and recognised by a stable key, so rows that
+ * stay visible across scrolls are not counted twice. By default the key is the row's
+ * content-desc when the app sets one, and otherwise the row's position in the list plus its
+ * content, so distinct rows that happen to show the same title and price are still counted
+ * apart. Positions carry over between screens by matching the rows still visible after a
+ * scroll; a run of identical rows without a content-desc that straddles a scroll is matched
+ * as far as it overlaps, so such a run may still be undercounted. Only rows lying fully inside
+ * the list are read, so a row clipped at its edge is never recorded with part of its content.
+ * The crawl stops when scrolling no longer brings new items, when the list can't scroll
+ * further, or at the configured page bound.
+ * The list is left scrolled to wherever the crawl stopped.
+ */
+public class ListCrawler {
+
+    /**
+     * One list row, detached from the driver
+     */
+    public static final class ListItem {
+        private final int position;
+        private final String key;
+        private final String title;
+        private final String price;
+        private final String description;
+
+        /**
+         * Constructor
+         * @param position Position in the list, starting at 0
+         * @param key Stable key used for de-duplication
+         * @param title Title text, empty if the row has none
+         * @param price Price text, empty if the row has none
+         * @param description Content-desc of the row, empty if it has none
+         */
+        ListItem(int position, String key, String title, String price, String description) {
+            this.position = position;
+            this.key = key;
+            this.title = title;
+            this.price = price;
+            this.description = description;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getPrice() {
+            return price;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return position + ": " + title + " " + price;
+        }
+    }
+
+    // Screens in a row without a new item before the list counts as settled
+    private static final int SETTLED_AFTER_EMPTY_PAGES = 2;
+
+    private final AndroidDriver driver;
+    private final ScrollUtils scrollUtils;
+    private final By listLocator;
+    private final By rowLocator;
+    private final By titleLocator;
+    private final By priceLocator;
+    private final Function<ListItem, String> keyFunction;
+    private final int maxPages;
+
+    /**
+     * Constructor for rows keyed by content-desc, or by list position and content
+     * @param driver AndroidDriver instance
+     * @param scrollUtils Scroll helper of the page
+     * @param listLocator Locator of the scrolling list container, or null to scroll the first scrollable view
+     * @param rowLocator Locator of one row
+     * @param titleLocator Locator of the title inside a row
+     * @param priceLocator Locator of the price inside a row
+     */
+    public ListCrawler(AndroidDriver driver, ScrollUtils scrollUtils, By listLocator, By rowLocator,
+                       By titleLocator, By priceLocator) {
+        this(driver, scrollUtils, listLocator, rowLocator, titleLocator, priceLocator,
+                item -> !item.getDescription().isEmpty()
+                        ? "desc:" + item.getDescription()
+                        : item.getPosition() + "|" + item.getTitle() + "|" + item.getPrice());
+    }
+
+    /**
+     * Constructor
+     * @param driver AndroidDriver instance
+     * @param scrollUtils Scroll helper of the page
+     * @param listLocator Locator of the scrolling list container, or null to scroll the first scrollable view
+     * @param rowLocator Locator of one row
+     * @param titleLocator Locator of the title inside a row
+     * @param priceLocator Locator of the price inside a row
+     * @param keyFunction Builds the stable key of a row from its record
+     */
+    public ListCrawler(AndroidDriver driver, ScrollUtils scrollUtils, By listLocator, By rowLocator,
+                       By titleLocator, By priceLocator, Function<ListItem, String> keyFunction) {
+        this.driver = driver;
+        this.scrollUtils = scrollUtils;
+        this.listLocator = listLocator;
+        this.rowLocator = rowLocator;
+        this.titleLocator = titleLocator;
+        this.priceLocator = priceLocator;
+        this.keyFunction = keyFunction;
+        this.maxPages = Integer.parseInt(Objects.toString(AppiumConfig.getProperty("list.crawl.max.pages"), "50"));
+    }
+
+    /**
+     * Crawl the list and hand every new item to a consumer as soon as its screen is read
+     * @param consumer Receives each item once, in list order
+     * @return Number of distinct items seen
+     */
+    public int crawl(Consumer<ListItem> consumer) {
+        return crawl(consumer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Crawl the list until it settles or enough items were seen
+     * @param consumer Receives each item once, in list order
+     * @param maxItems Stop after this many items
+     * @return Number of distinct items seen
+     */
+    public int crawl(Consumer<ListItem> consumer, int maxItems) {
+        Set<String> seen = new HashSet<>();
+        List<ListItem> previous = new ArrayList<>();
+        int emptyPages = 0;
+        for (int page = 0; page < maxPages && seen.size() < maxItems; page++) {
+            PageSnapshot snapshot = PageSnapshot.capture(driver);
+            Rectangle area = listArea(snapshot);
+            int before = seen.size();
+            previous = readScreen(snapshot, area, previous, seen, consumer, maxItems);
+
+            emptyPages = seen.size() == before ? emptyPages + 1 : 0;
+            if (emptyPages >= SETTLED_AFTER_EMPTY_PAGES || seen.size() >= maxItems) {
+                break;
+            }
+            if (!scrollUtils.scroll(area, ScrollUtils.Direction.DOWN)) {
+                // Bottom reached; rows revealed by this last scroll still need reading
+                PageSnapshot last = PageSnapshot.capture(driver);
+                readScreen(last, listArea(last), previous, seen, consumer, maxItems);
+                break;
+            }
+        }
+        return seen.size();
+    }
+
+    /**
+     * Crawl the list into a list of records
+     * @param maxItems Stop after this many items
+     * @return Distinct items in list order
+     */
+    public List<ListItem> collect(int maxItems) {
+        List<ListItem> items = new ArrayList<>();
+        crawl(items::add, maxItems);
+        return items;
+    }
+
+    /**
+     * Count the distinct items of the whole list without keeping them
+     * @return Number of distinct items
+     */
+    public int count() {
+        return crawl(item -> { });
+    }
+
+    /**
+     * Read the rows of one screen and report the ones not seen before
+     * @param snapshot Snapshot of the screen
+     * @param area Bounds of the list; rows not fully inside are skipped
+     * @param previous Rows of the previous screen, to carry list positions over
+     * @param seen Keys reported so far, updated
+     * @param consumer Receives new items
+     * @param maxItems Stop after this many items
+     * @return Rows of this screen with their list positions
+     */
+    private List<ListItem> readScreen(PageSnapshot snapshot, Rectangle area, List<ListItem> previous,
+                                      Set<String> seen, Consumer<ListItem> consumer, int maxItems) {
+        int[] titles = snapshot.findAll(titleLocator);
+        int[] prices = snapshot.findAll(priceLocator);
+        List<ListItem> rows = new ArrayList<>();
+        for (int row : snapshot.findAll(rowLocator)) {
+            if (!contains(area, snapshot.getBounds(row))) {
+                // Row clipped at the list edge; it is read in full on the next screen
+                continue;
+            }
+            int end = snapshot.getSubtreeEnd(row);
+            String title = textBetween(snapshot, titles, row, end);
+            String price = textBetween(snapshot, prices, row, end);
+            String description = Objects.toString(snapshot.getAttribute(row, "content-desc"), "");
+            rows.add(new ListItem(0, null, title, price, description));
+        }
+
+        // Rows still visible from the previous screen keep their positions; the rest follow them
+        int first = previous.isEmpty() ? 0
+                : previous.get(0).getPosition() + previous.size() - overlap(previous, rows);
+        List<ListItem> placed = new ArrayList<>(rows.size());
+        for (ListItem row : rows) {
+            ListItem candidate = new ListItem(first + placed.size(), null, row.getTitle(), row.getPrice(),
+                    row.getDescription());
+            placed.add(candidate);
+            String key = keyFunction.apply(candidate);
+            if (seen.add(key)) {
+                consumer.accept(new ListItem(candidate.getPosition(), key, candidate.getTitle(), candidate.getPrice(),
+                        candidate.getDescription()));
+                if (seen.size() >= maxItems) {
+                    break;
+                }
+            }
+        }
+        return placed;
+    }
+
+    /**
+     * Find how many rows at the end of the previous screen are the rows at the start of this one
+     * @param previous Rows of the previous screen
+     * @param current Rows of this screen
+     * @return Longest overlap whose rows all have the same content
+     */
+    private static int overlap(List<ListItem> previous, List<ListItem> current) {
+        for (int length = Math.min(previous.size(), current.size()); length > 0; length--) {
+            int offset = previous.size() - length;
+            boolean matches = true;
+            for (int i = 0; i < length && matches; i++) {
+                matches = sameContent(previous.get(offset + i), current.get(i));
+            }
+            if (matches) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Check if two rows show the same content
+     * @param a Row
+     * @param b Row
+     * @return true if title, price and content-desc are equal
+     */
+    private static boolean sameContent(ListItem a, ListItem b) {
+        return a.getTitle().equals(b.getTitle()) && a.getPrice().equals(b.getPrice())
+                && a.getDescription().equals(b.getDescription());
+    }
+
+    /**
+     * Get the bounds of the list container, or the default scroll area if it isn't on screen
+     * @param snapshot Snapshot of the screen
+     * @return Area to scroll
+     */
+    private Rectangle listArea(PageSnapshot snapshot) {
+        int[] lists = listLocator != null ? snapshot.findAll(listLocator) : new int[0];
+        return lists.length > 0 ? snapshot.getBounds(lists[0]) : scrollUtils.scrollArea();
+    }
+
+    /**
+     * Check if a rectangle lies fully inside another
+     * @param outer Enclosing rectangle
+     * @param inner Rectangle to check
+     * @return true if no edge of inner lies outside outer
+     */
+    private static boolean contains(Rectangle outer, Rectangle inner) {
+        return inner.getX() >= outer.getX() && inner.getY() >= outer.getY()
+                && inner.getX() + inner.getWidth() <= outer.getX() + outer.getWidth()
+                && inner.getY() + inner.getHeight() <= outer.getY() + outer.getHeight();
+    }
+
+    /**
+     * Get the text of the first node from a sorted index list that lies inside a subtree
+     * @param snapshot Snapshot of the screen
+     * @param sortedNodes Node indexes in document order
+     * @param row Subtree root
+     * @param end Exclusive end of the subtree
+     * @return Text, empty if no node lies inside
+     */
+    private static String textBetween(PageSnapshot snapshot, int[] sortedNodes, int row, int end) {
+        int at = Arrays.binarySearch(sortedNodes, row + 1);
+        if (at < 0) {
+            at = -at - 1;
+        }
+        return at < sortedNodes.length && sortedNodes[at] < end ? snapshot.getText(sortedNodes[at]) : "";
+    }
+}
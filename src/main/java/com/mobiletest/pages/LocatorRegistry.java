@@ -0,0 +1,89 @@
+package com.mobiletest.pages;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.By;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LocatorRegistry holds the exact locator of every {@code @AndroidFindBy} field of a page class.
+ * The table for a class is built once, the first time the class is used, and shared by all
+ * its instances, so waits never have to reverse-engineer a locator from an element proxy.
+ */
+public final class LocatorRegistry {
+
+    private static final ClassValue<Map<Field, By>> LOCATORS = new ClassValue<Map<Field, By>>() {
+        @Override
+        protected Map<Field, By> computeValue(Class<?> pageClass) {
+            return buildTable(pageClass);
+        }
+    };
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private LocatorRegistry() {
+    }
+
+    /**
+     * Get the locator table of a page class, including inherited fields
+     * @param pageClass Page object class
+     * @return Unmodifiable map of annotated field to its locator
+     */
+    public static Map<Field, By> locatorsOf(Class<?> pageClass) {
+        return LOCATORS.get(pageClass);
+    }
+
+    /**
+     * Read every annotated field of a class hierarchy into a locator table
+     * @param pageClass Page object class
+     * @return Unmodifiable locator table
+     */
+    private static Map<Field, By> buildTable(Class<?> pageClass) {
+        Map<Field, By> table = new LinkedHashMap<>();
+        for (Class<?> type = pageClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                AndroidFindBy findBy = field.getAnnotation(AndroidFindBy.class);
+                if (findBy != null) {
+                    field.setAccessible(true);
+                    table.put(field, toBy(findBy, pageClass, field));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(table);
+    }
+
+    /**
+     * Convert an {@code @AndroidFindBy} annotation to a locator
+     * @param findBy Annotation
+     * @param pageClass Page class, for error messages
+     * @param field Annotated field, for error messages
+     * @return Locator
+     */
+    private static By toBy(AndroidFindBy findBy, Class<?> pageClass, Field field) {
+        if (!findBy.id().isEmpty()) {
+            return By.id(findBy.id());
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            return AppiumBy.accessibilityId(findBy.accessibility());
+        }
+        if (!findBy.uiAutomator().isEmpty()) {
+            return AppiumBy.androidUIAutomator(findBy.uiAutomator());
+        }
+        if (!findBy.className().isEmpty()) {
+            return AppiumBy.className(findBy.className());
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return By.xpath(findBy.xpath());
+        }
+        if (!findBy.tagName().isEmpty()) {
+            return By.tagName(findBy.tagName());
+        }
+        throw new IllegalStateException("Unsupported @AndroidFindBy on "
+                + pageClass.getSimpleName() + "." + field.getName());
+    }
+}
@@ -5,12 +5,22 @@ import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * LoginPage represents the Login screen of the application.
  * Contains all elements and actions related to user login.
  */
 public class LoginPage extends BasePage {
     
+    /**
+     * Possible results of submitting the login form
+     */
+    public enum LoginOutcome {
+        HOME, ERROR
+    }
+    
     // Element Locators using @AndroidFindBy annotation
     @AndroidFindBy(id = "com.example.app:id/username_input")
     private WebElement usernameInput;
@@ -41,6 +51,7 @@ public class LoginPage extends BasePage {
     private final By passwordInputLocator = By.id("com.example.app:id/password_input");
     private final By loginButtonLocator = By.id("com.example.app:id/login_button");
     private final By errorMessageLocator = By.id("com.example.app:id/error_message");
+    private final By homeToolbarLocator = By.id("com.example.app:id/home_toolbar");
     
     /**
      * Constructor
@@ -85,7 +96,7 @@ public class LoginPage extends BasePage {
      */
     public HomePage clickLoginButton() {
         click(loginButton);
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
     
     /**
@@ -101,24 +112,41 @@ public class LoginPage extends BasePage {
     }
     
     /**
-     * Perform login and expect failure
+     * Submit the login form and wait for whichever outcome appears first
      * @param username Username
      * @param password Password
-     * @return LoginPage instance (stays on login page)
+     * @return HOME if the home page opened, ERROR if an error message was shown
      */
-    public LoginPage loginExpectingFailure(String username, String password) {
+    public LoginOutcome attemptLogin(String username, String password) {
         enterUsername(username);
         enterPassword(password);
         click(loginButton);
+        
+        Map<LoginOutcome, By> outcomes = new LinkedHashMap<>();
+        outcomes.put(LoginOutcome.ERROR, errorMessageLocator);
+        outcomes.put(LoginOutcome.HOME, homeToolbarLocator);
+        return waitUtils.waitForFirst(outcomes);
+    }
+    
+    /**
+     * Perform login and expect failure
+     * @param username Username
+     * @param password Password
+     * @return LoginPage instance (stays on login page)
+     */
+    public LoginPage loginExpectingFailure(String username, String password) {
+        attemptLogin(username, password);
         return this;
     }
     
     /**
-     * Check if error message is displayed
-     * @return true if error message is visible
+     * Check if error message is displayed.
+     * The login outcome has already been waited for, so this checks once instead of waiting
+     * for a message that may never come.
+     * @return true if error message is shown
      */
     public boolean isErrorMessageDisplayed() {
-        return isDisplayed(errorMessageLocator);
+        return !isAbsent(errorMessageLocator);
     }
     
     /**
@@ -135,7 +163,7 @@ public class LoginPage extends BasePage {
      */
     public ForgotPasswordPage clickForgotPassword() {
         click(forgotPasswordLink);
-        return new ForgotPasswordPage(driver);
+        return page(ForgotPasswordPage.class);
     }
     
     /**
@@ -144,7 +172,7 @@ public class LoginPage extends BasePage {
      */
     public SignupPage clickSignup() {
         click(signupLink);
-        return new SignupPage(driver);
+        return page(SignupPage.class);
     }
     
     /**
@@ -0,0 +1,368 @@
+package com.mobiletest.pages;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NodeTable is a compact, array-backed copy of a UiAutomator2 hierarchy.
+ * It is filled by a single StAX pass over the page source: every node is a row index,
+ * string attributes are interned into a shared pool and stored as int ids, boolean
+ * attributes are packed into one long and bounds into four ints. No object is created
+ * per node, so even multi-megabyte list screens parse with little garbage.
+ * Rows are in document order; a node's descendants are the rows after it up to its subtree end.
+ */
+final class NodeTable {
+
+    static final int NONE = -1;
+
+    // String attributes kept per node
+    static final int CLASS = 0;
+    static final int TEXT = 1;
+    static final int RESOURCE_ID = 2;
+    static final int CONTENT_DESC = 3;
+    static final int PACKAGE = 4;
+    static final int HINT = 5;
+    private static final String[] STRING_ATTRIBUTES = {"class", "text", "resource-id", "content-desc", "package", "hint"};
+
+    // Boolean attributes, one bit each; the bit 32 places higher records that the attribute was present
+    private static final String[] FLAG_ATTRIBUTES = {"checkable", "checked", "clickable", "enabled", "focusable",
+            "focused", "long-clickable", "password", "scrollable", "selected", "displayed"};
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final List<String> pool = new ArrayList<>();
+    private final Map<String, Integer> poolIds = new HashMap<>();
+
+    private int size;
+    private int[] parent = new int[64];
+    private int[] subtreeEnd = new int[64];
+    private int[] strings = new int[64 * STRING_ATTRIBUTES.length];
+    private long[] flags = new long[64];
+    private int[] bounds = new int[64 * 4];
+
+    /**
+     * Constructor parses a page source into the table
+     * @param pageSource XML page source as returned by the driver
+     */
+    NodeTable(String pageSource) {
+        intern("");
+        parse(pageSource);
+    }
+
+    /**
+     * Get the number of nodes
+     * @return Node count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the parent of a node
+     * @param node Node index
+     * @return Parent index, or {@link #NONE} for top-level nodes
+     */
+    int parent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Get the index after the last descendant of a node
+     * @param node Node index
+     * @return Exclusive end of the node's subtree
+     */
+    int subtreeEnd(int node) {
+        return subtreeEnd[node];
+    }
+
+    /**
+     * Get a string attribute of a node
+     * @param node Node index
+     * @param attribute One of the string attribute constants, e.g. {@link #RESOURCE_ID}
+     * @return Attribute value, empty if absent
+     */
+    String string(int node, int attribute) {
+        return pool.get(strings[node * STRING_ATTRIBUTES.length + attribute]);
+    }
+
+    /**
+     * Get the bounds of a node
+     * @param node Node index
+     * @return {left, top, right, bottom}
+     */
+    int[] bounds(int node) {
+        return Arrays.copyOfRange(bounds, node * 4, node * 4 + 4);
+    }
+
+    /**
+     * Get any attribute of a node by its page-source name
+     * @param node Node index
+     * @param name Attribute name, e.g. "resource-id" or "checked"
+     * @return Attribute value, or null if the node doesn't carry it
+     */
+    String attribute(int node, String name) {
+        for (int i = 0; i < STRING_ATTRIBUTES.length; i++) {
+            if (STRING_ATTRIBUTES[i].equals(name)) {
+                return string(node, i);
+            }
+        }
+        for (int i = 0; i < FLAG_ATTRIBUTES.length; i++) {
+            if (FLAG_ATTRIBUTES[i].equals(name)) {
+                if ((flags[node] & (1L << (i + 32))) == 0) {
+                    return null;
+                }
+                return String.valueOf((flags[node] & (1L << i)) != 0);
+            }
+        }
+        if ("bounds".equals(name)) {
+            int at = node * 4;
+            return "[" + bounds[at] + "," + bounds[at + 1] + "][" + bounds[at + 2] + "," + bounds[at + 3] + "]";
+        }
+        return null;
+    }
+
+    /**
+     * Read a boolean attribute of a node
+     * @param node Node index
+     * @param name Attribute name, e.g. "displayed"
+     * @param absent Value to assume when the node doesn't carry the attribute
+     * @return Attribute value
+     */
+    boolean flag(int node, String name, boolean absent) {
+        String value = attribute(node, name);
+        return value == null ? absent : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Find all nodes whose string attribute equals a value.
+     * The value is looked up in the pool once; the scan then compares ints.
+     * @param attribute One of the string attribute constants
+     * @param value Exact value
+     * @return Matching node indexes in document order
+     */
+    int[] find(int attribute, String value) {
+        Integer id = poolIds.get(value);
+        if (id == null || value.isEmpty()) {
+            return new int[0];
+        }
+        int[] matches = new int[4];
+        int count = 0;
+        int stride = STRING_ATTRIBUTES.length;
+        for (int node = 0; node < size; node++) {
+            if (strings[node * stride + attribute] == id) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = node;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Find all nodes whose resource id ends with a suffix, e.g. ":id/login_button"
+     * @param suffix Resource id suffix
+     * @return Matching node indexes in document order
+     */
+    int[] findResourceIdSuffix(String suffix) {
+        // Filter the pool first so the per-node scan stays an int comparison
+        boolean[] matchingIds = new boolean[pool.size()];
+        boolean any = false;
+        for (int id = 0; id < pool.size(); id++) {
+            if (pool.get(id).endsWith(suffix)) {
+                matchingIds[id] = true;
+                any = true;
+            }
+        }
+        if (!any) {
+            return new int[0];
+        }
+        int[] matches = new int[4];
+        int count = 0;
+        int stride = STRING_ATTRIBUTES.length;
+        for (int node = 0; node < size; node++) {
+            if (matchingIds[strings[node * stride + RESOURCE_ID]]) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = node;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Stream the page source into the table
+     * @param pageSource XML page source
+     */
+    private void parse(String pageSource) {
+        int[] stack = new int[32];
+        int depth = 0;
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(pageSource));
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth == 0 && "hierarchy".equals(reader.getLocalName())) {
+                        // The root wrapper is not a view; keep its slot so depth bookkeeping stays simple
+                        stack[depth++] = NONE;
+                        continue;
+                    }
+                    int node = addNode(reader, depth == 0 ? NONE : stack[depth - 1]);
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = node;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    int node = stack[--depth];
+                    if (node != NONE) {
+                        subtreeEnd[node] = size;
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Could not parse page source", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the element under the reader as a new row
+     * @param reader Reader positioned on a start element
+     * @param parentNode Parent row, or {@link #NONE}
+     * @return New node index
+     */
+    private int addNode(XMLStreamReader reader, int parentNode) {
+        ensureCapacity(size + 1);
+        int node = size++;
+        parent[node] = parentNode;
+        subtreeEnd[node] = size;
+        int stride = STRING_ATTRIBUTES.length;
+        boolean hasClass = false;
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String name = reader.getAttributeLocalName(i);
+            String value = reader.getAttributeValue(i);
+            if ("bounds".equals(name)) {
+                parseBounds(value, node * 4);
+                continue;
+            }
+            int stringIndex = indexOf(STRING_ATTRIBUTES, name);
+            if (stringIndex >= 0) {
+                strings[node * stride + stringIndex] = intern(value);
+                hasClass |= stringIndex == CLASS;
+                continue;
+            }
+            int flagIndex = indexOf(FLAG_ATTRIBUTES, name);
+            if (flagIndex >= 0) {
+                flags[node] |= 1L << (flagIndex + 32);
+                if (Boolean.parseBoolean(value)) {
+                    flags[node] |= 1L << flagIndex;
+                }
+            }
+        }
+        if (!hasClass) {
+            // Older servers only put the class in the tag name
+            strings[node * stride + CLASS] = intern(reader.getLocalName());
+        }
+        return node;
+    }
+
+    /**
+     * Parse "[left,top][right,bottom]" into the bounds array
+     * @param value Bounds attribute
+     * @param at Offset of the node's bounds
+     */
+    private void parseBounds(String value, int at) {
+        int field = 0;
+        int number = 0;
+        boolean negative = false;
+        boolean inNumber = false;
+        for (int i = 0; i < value.length() && field < 4; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                number = number * 10 + (c - '0');
+                inNumber = true;
+            } else if (c == '-') {
+                negative = true;
+            } else if (inNumber) {
+                bounds[at + field++] = negative ? -number : number;
+                number = 0;
+                negative = false;
+                inNumber = false;
+            }
+        }
+    }
+
+    /**
+     * Intern a string into the pool
+     * @param value String value
+     * @return Pool id
+     */
+    private int intern(String value) {
+        Integer id = poolIds.get(value);
+        if (id == null) {
+            id = pool.size();
+            pool.add(value);
+            poolIds.put(value, id);
+        }
+        return id;
+    }
+
+    /**
+     * Grow the column arrays to hold at least the given number of nodes
+     * @param capacity Required node capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= parent.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, parent.length * 2);
+        parent = Arrays.copyOf(parent, newCapacity);
+        subtreeEnd = Arrays.copyOf(subtreeEnd, newCapacity);
+        strings = Arrays.copyOf(strings, newCapacity * STRING_ATTRIBUTES.length);
+        flags = Arrays.copyOf(flags, newCapacity);
+        bounds = Arrays.copyOf(bounds, newCapacity * 4);
+    }
+
+    /**
+     * Find a name in a small array
+     * @param names Names
+     * @param name Name to find
+     * @return Index, or -1
+     */
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Create a StAX factory that never resolves DTDs or external entities
+     * @return Input factory
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
@@ -51,6 +51,6 @@ public class NotificationPage extends BasePage {
     
     public HomePage navigateBack() {
         navigateBack();
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
 }
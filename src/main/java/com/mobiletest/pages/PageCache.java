@@ -0,0 +1,90 @@
+package com.mobiletest.pages;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PageCache keeps one instance of each page object per driver session.
+ * Page objects hold no test state, so navigating back to a page reuses the instance
+ * built the first time instead of re-running PageFactory reflection and proxy creation.
+ * Pages are keyed by session id; the driver pool evicts a session's pages when it quits
+ * or detaches the session, since every cached page holds on to its driver.
+ */
+public final class PageCache {
+
+    private static final Map<SessionId, Map<Class<?>, BasePage>> pages = new ConcurrentHashMap<>();
+
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> pageClass) {
+            try {
+                return pageClass.getConstructor(AndroidDriver.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(pageClass.getSimpleName() + " needs a public (AndroidDriver) constructor", e);
+            }
+        }
+    };
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private PageCache() {
+    }
+
+    /**
+     * Get the page object of a session, creating it on first use
+     * @param driver AndroidDriver instance
+     * @param pageClass Page object class
+     * @return Cached page instance
+     */
+    public static <T extends BasePage> T get(AndroidDriver driver, Class<T> pageClass) {
+        Map<Class<?>, BasePage> sessionPages = pages.computeIfAbsent(driver.getSessionId(), k -> new HashMap<>());
+        // A session is used by one worker thread at a time, but stay safe if it is shared
+        synchronized (sessionPages) {
+            BasePage page = sessionPages.get(pageClass);
+            if (page == null) {
+                page = create(driver, pageClass);
+                sessionPages.put(pageClass, page);
+            } else {
+                page.onReuse();
+            }
+            return pageClass.cast(page);
+        }
+    }
+
+    /**
+     * Drop the cached pages of a session, e.g. before it is quit
+     * @param sessionId Session id, ignored if null
+     */
+    public static void evict(SessionId sessionId) {
+        if (sessionId != null) {
+            pages.remove(sessionId);
+        }
+    }
+
+    /**
+     * Instantiate a page object through its cached constructor
+     * @param driver AndroidDriver instance
+     * @param pageClass Page object class
+     * @return New page instance
+     */
+    private static BasePage create(AndroidDriver driver, Class<? extends BasePage> pageClass) {
+        try {
+            return (BasePage) CONSTRUCTORS.get(pageClass).newInstance(driver);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to create " + pageClass.getSimpleName(), cause);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Failed to create " + pageClass.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.mobiletest.pages;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Rectangle;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PageSnapshot is an in-memory copy of the screen taken from a single getPageSource() call.
+ * The source is streamed into a compact {@link NodeTable}, after which any number of presence,
+ * displayed, text, attribute and bounds queries are answered locally. Nodes are addressed by
+ * their index in document order. A DOM is only built, once, if an XPath query needs it.
+ * A snapshot describes the screen at capture time only; take a new one after the UI changes.
+ */
+public class PageSnapshot {
+
+    private static final String NODE_INDEX = "node";
+    private static final Map<String, String> ATTRIBUTE_ALIASES = new HashMap<>();
+
+    static {
+        ATTRIBUTE_ALIASES.put("resourceId", "resource-id");
+        ATTRIBUTE_ALIASES.put("contentDescription", "content-desc");
+        ATTRIBUTE_ALIASES.put("name", "content-desc");
+        ATTRIBUTE_ALIASES.put("className", "class");
+        ATTRIBUTE_ALIASES.put("longClickable", "long-clickable");
+    }
+
+    private final String pageSource;
+    private final NodeTable nodes;
+    private Document document;
+
+    /**
+     * Constructor parses a page source
+     * @param pageSource XML page source as returned by the driver
+     */
+    public PageSnapshot(String pageSource) {
+        this.pageSource = pageSource;
+        this.nodes = new NodeTable(pageSource);
+    }
+
+    /**
+     * Take a snapshot of the current screen
+     * @param driver AndroidDriver instance
+     * @return Snapshot of the screen
+     */
+    public static PageSnapshot capture(AndroidDriver driver) {
+        return new PageSnapshot(driver.getPageSource());
+    }
+
+    /**
+     * Check whether a locator can be answered from a snapshot
+     * @param locator Element locator
+     * @return true for id, accessibility id, class name and XPath locators
+     */
+    public static boolean supports(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return false;
+        }
+        switch (((By.Remotable) locator).getRemoteParameters().using()) {
+            case "id":
+            case "accessibility id":
+            case "class name":
+            case "xpath":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Find all nodes matching a locator
+     * @param locator Element locator, see {@link #supports(By)}
+     * @return Matching node indexes in document order
+     * @throws UnsupportedOperationException if the locator type can't be answered locally
+     */
+    public int[] findAll(By locator) {
+        if (!supports(locator)) {
+            throw new UnsupportedOperationException("Snapshot cannot answer " + locator);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case "id":
+                return findById(value);
+            case "accessibility id":
+                return nodes.find(NodeTable.CONTENT_DESC, value);
+            case "class name":
+                return nodes.find(NodeTable.CLASS, value);
+            default:
+                return findByXPath(value);
+        }
+    }
+
+    /**
+     * Find all nodes with the given text
+     * @param text Exact text
+     * @return Matching node indexes in document order
+     */
+    public int[] findByText(String text) {
+        return nodes.find(NodeTable.TEXT, text);
+    }
+
+    /**
+     * Check if any node matches the locator
+     * @param locator Element locator
+     * @return true if at least one node matches
+     */
+    public boolean isPresent(By locator) {
+        return findAll(locator).length > 0;
+    }
+
+    /**
+     * Check if a node matching the locator is displayed
+     * @param locator Element locator
+     * @return true if any matching node is displayed
+     */
+    public boolean isDisplayed(By locator) {
+        for (int node : findAll(locator)) {
+            if (nodes.flag(node, "displayed", true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the text of the first node matching the locator
+     * @param locator Element locator
+     * @return Text content
+     * @throws NoSuchElementException if nothing matches
+     */
+    public String getText(By locator) {
+        return getText(first(locator));
+    }
+
+    /**
+     * Get an attribute of the first node matching the locator.
+     * Accepts the driver's attribute names, e.g. "resourceId" as well as "resource-id".
+     * @param locator Element locator
+     * @param attribute Attribute name
+     * @return Attribute value, or null if the node doesn't have it
+     * @throws NoSuchElementException if nothing matches
+     */
+    public String getAttribute(By locator, String attribute) {
+        return getAttribute(first(locator), attribute);
+    }
+
+    /**
+     * Check if the first node matching the locator is enabled
+     * @param locator Element locator
+     * @return true if enabled
+     * @throws NoSuchElementException if nothing matches
+     */
+    public boolean isEnabled(By locator) {
+        return nodes.flag(first(locator), "enabled", true);
+    }
+
+    /**
+     * Get the on-screen bounds of the first node matching the locator
+     * @param locator Element locator
+     * @return Bounds rectangle
+     * @throws NoSuchElementException if nothing matches
+     */
+    public Rectangle getBounds(By locator) {
+        return getBounds(first(locator));
+    }
+
+    /**
+     * Get the text of a node
+     * @param node Node index
+     * @return Text content, empty if none
+     */
+    public String getText(int node) {
+        return nodes.string(node, NodeTable.TEXT);
+    }
+
+    /**
+     * Get an attribute of a node
+     * @param node Node index
+     * @param attribute Attribute name, page-source or driver spelling
+     * @return Attribute value, or null if the node doesn't have it
+     */
+    public String getAttribute(int node, String attribute) {
+        return nodes.attribute(node, ATTRIBUTE_ALIASES.getOrDefault(attribute, attribute));
+    }
+
+    /**
+     * Get the on-screen bounds of a node
+     * @param node Node index
+     * @return Bounds rectangle
+     */
+    public Rectangle getBounds(int node) {
+        int[] ltrb = nodes.bounds(node);
+        return new Rectangle(ltrb[0], ltrb[1], ltrb[3] - ltrb[1], ltrb[2] - ltrb[0]);
+    }
+
+    /**
+     * Get the parent of a node
+     * @param node Node index
+     * @return Parent index, or -1 for top-level nodes
+     */
+    public int getParent(int node) {
+        return nodes.parent(node);
+    }
+
+    /**
+     * Get the index after the last descendant of a node.
+     * Descendants of node n are exactly the indexes n+1 up to, not including, this value.
+     * @param node Node index
+     * @return Exclusive end of the node's subtree
+     */
+    public int getSubtreeEnd(int node) {
+        return nodes.subtreeEnd(node);
+    }
+
+    /**
+     * Get the number of nodes in the snapshot
+     * @return Node count
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Get the first node matching a locator
+     * @param locator Element locator
+     * @return First matching node index
+     */
+    private int first(By locator) {
+        int[] matches = findAll(locator);
+        if (matches.length == 0) {
+            throw new NoSuchElementException("No node in page snapshot matches " + locator);
+        }
+        return matches[0];
+    }
+
+    /**
+     * Resolve an id locator the way UiAutomator2 does: a bare id is matched
+     * against the id part of fully qualified resource ids.
+     * @param id Resource id, with or without package prefix
+     * @return Matching node indexes in document order
+     */
+    private int[] findById(String id) {
+        int[] exact = nodes.find(NodeTable.RESOURCE_ID, id);
+        if (exact.length > 0 || id.contains(":id/")) {
+            return exact;
+        }
+        return nodes.findResourceIdSuffix(":id/" + id);
+    }
+
+    /**
+     * Evaluate an XPath expression against the snapshot.
+     * The DOM needed for this is built on the first XPath query and kept.
+     * @param expression XPath expression
+     * @return Matching node indexes in document order
+     */
+    private int[] findByXPath(String expression) {
+        try {
+            NodeList matches = (NodeList) XPathFactory.newInstance().newXPath()
+                    .evaluate(expression, document(), XPathConstants.NODESET);
+            int[] result = new int[matches.getLength()];
+            int count = 0;
+            for (int i = 0; i < matches.getLength(); i++) {
+                Object index = matches.item(i).getUserData(NODE_INDEX);
+                if (index != null) {
+                    result[count++] = (Integer) index;
+                }
+            }
+            return count == result.length ? result : Arrays.copyOf(result, count);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath: " + expression, e);
+        }
+    }
+
+    /**
+     * Get the DOM of the snapshot, parsing it on first use.
+     * Each element is tagged with its node index so XPath results map back to the table.
+     * @return Parsed document
+     */
+    private Document document() {
+        if (document == null) {
+            Document parsed = parse(pageSource);
+            Element root = parsed.getDocumentElement();
+            int[] counter = {0};
+            if ("hierarchy".equals(root.getTagName())) {
+                tagChildren(root, counter);
+            } else {
+                tag(root, counter);
+            }
+            document = parsed;
+        }
+        return document;
+    }
+
+    /**
+     * Number an element and its descendants in document order, matching the node table
+     * @param element Subtree root
+     * @param counter Next node index
+     */
+    private static void tag(Element element, int[] counter) {
+        element.setUserData(NODE_INDEX, counter[0]++, null);
+        tagChildren(element, counter);
+    }
+
+    /**
+     * Number the element children of a node in document order
+     * @param parent Parent node
+     * @param counter Next node index
+     */
+    private static void tagChildren(Element parent, int[] counter) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                tag((Element) child, counter);
+            }
+        }
+    }
+
+    /**
+     * Parse the page source into a DOM without fetching external entities
+     * @param pageSource XML page source
+     * @return Parsed document
+     */
+    private static Document parse(String pageSource) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setExpandEntityReferences(false);
+            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not parse page source", e);
+        }
+    }
+}
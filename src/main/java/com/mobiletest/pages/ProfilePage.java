@@ -106,6 +106,6 @@ public class ProfilePage extends BasePage {
     
     public HomePage navigateBack() {
         click(backButton);
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
 }
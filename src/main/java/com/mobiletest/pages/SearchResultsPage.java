@@ -33,6 +33,8 @@ public class SearchResultsPage extends BasePage {
     private final By resultsTitleLocator = By.id("com.example.app:id/search_results_title");
     private final By resultItemsLocator = By.id("com.example.app:id/result_item");
     private final By noResultsLocator = By.id("com.example.app:id/no_results_message");
+    private final By resultTitleLocator = By.id("com.example.app:id/item_title");
+    private final By resultPriceLocator = By.id("com.example.app:id/item_price");
     
     public SearchResultsPage(AndroidDriver driver) {
         super(driver);
@@ -47,6 +49,23 @@ public class SearchResultsPage extends BasePage {
         return findElements(resultItemsLocator).size();
     }
     
+    /**
+     * Read every search result, scrolling through the list screen by screen
+     * @param maxItems Stop after this many results
+     * @return Distinct results in list order
+     */
+    public List<ListCrawler.ListItem> getAllResults(int maxItems) {
+        return listCrawler(null, resultItemsLocator, resultTitleLocator, resultPriceLocator).collect(maxItems);
+    }
+    
+    /**
+     * Count every search result, not just the ones on screen
+     * @return Number of distinct results
+     */
+    public int getTotalResultsCount() {
+        return listCrawler(null, resultItemsLocator, resultTitleLocator, resultPriceLocator).count();
+    }
+    
     public String getResultsCountText() {
         return getText(resultsCount);
     }
@@ -55,15 +74,20 @@ public class SearchResultsPage extends BasePage {
         return getResultsCount() > 0;
     }
     
+    /**
+     * Check if the no-results message is shown.
+     * Checks once: the results screen is already loaded, so the message is either there or not.
+     * @return true if the message is shown
+     */
     public boolean isNoResultsDisplayed() {
-        return isDisplayed(noResultsLocator);
+        return !isAbsent(noResultsLocator);
     }
     
     public ItemDetailPage clickFirstResult() {
         if (!resultItems.isEmpty()) {
             click(resultItems.get(0));
         }
-        return new ItemDetailPage(driver);
+        return page(ItemDetailPage.class);
     }
     
     public ItemDetailPage clickResultAtIndex(int index) {
@@ -71,7 +95,7 @@ public class SearchResultsPage extends BasePage {
         if (index < items.size()) {
             click(items.get(index));
         }
-        return new ItemDetailPage(driver);
+        return page(ItemDetailPage.class);
     }
     
     public SearchResultsPage clickFilter() {
@@ -86,6 +110,6 @@ public class SearchResultsPage extends BasePage {
     
     public HomePage navigateBack() {
         navigateBack();
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
 }
@@ -95,11 +95,11 @@ public class SettingsPage extends BasePage {
     
     public LoginPage logout() {
         click(logoutButton);
-        return new LoginPage(driver);
+        return page(LoginPage.class);
     }
     
     public HomePage navigateBack() {
         click(backButton);
-        return new HomePage(driver);
+        return page(HomePage.class);
     }
 }
@@ -5,12 +5,22 @@ import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * SignupPage represents the user registration screen.
  * Contains all elements and actions for creating a new account.
  */
 public class SignupPage extends BasePage {
     
+    /**
+     * Possible results of submitting the signup form
+     */
+    public enum SignupOutcome {
+        SUCCESS, ERROR, LOGIN
+    }
+    
     // Element Locators
     @AndroidFindBy(id = "com.example.app:id/signup_title")
     private WebElement signupTitle;
@@ -52,6 +62,7 @@ public class SignupPage extends BasePage {
     private final By signupTitleLocator = By.id("com.example.app:id/signup_title");
     private final By errorMessageLocator = By.id("com.example.app:id/error_message");
     private final By successMessageLocator = By.id("com.example.app:id/success_message");
+    private final By loginButtonLocator = By.id("com.example.app:id/login_button");
     
     /**
      * Constructor
@@ -148,6 +159,21 @@ public class SignupPage extends BasePage {
         return this;
     }
     
+    /**
+     * Click signup button and wait for whichever outcome appears first
+     * @return SUCCESS if a success message was shown, ERROR if an error was shown,
+     *         LOGIN if the app went straight back to the login page
+     */
+    public SignupOutcome submit() {
+        click(signupButton);
+        
+        Map<SignupOutcome, By> outcomes = new LinkedHashMap<>();
+        outcomes.put(SignupOutcome.ERROR, errorMessageLocator);
+        outcomes.put(SignupOutcome.SUCCESS, successMessageLocator);
+        outcomes.put(SignupOutcome.LOGIN, loginButtonLocator);
+        return waitUtils.waitForFirst(outcomes);
+    }
+    
     /**
      * Perform complete signup
      * @param fullName Full name
@@ -159,15 +185,17 @@ public class SignupPage extends BasePage {
      */
     public LoginPage signup(String fullName, String email, String phone, 
                             String username, String password) {
-        enterFullName(fullName);
-        enterEmail(email);
-        enterPhone(phone);
-        enterUsername(username);
-        enterPassword(password);
-        enterConfirmPassword(password);
+        Map<WebElement, String> form = new LinkedHashMap<>();
+        form.put(fullNameInput, fullName);
+        form.put(emailInput, email);
+        form.put(phoneInput, phone);
+        form.put(usernameInput, username);
+        form.put(passwordInput, password);
+        form.put(confirmPasswordInput, password);
+        fillForm(form);
         acceptTerms();
         click(signupButton);
-        return new LoginPage(driver);
+        return page(LoginPage.class);
     }
     
     /**
@@ -200,7 +228,7 @@ public class SignupPage extends BasePage {
      */
     public LoginPage navigateToLogin() {
         click(loginLink);
-        return new LoginPage(driver);
+        return page(LoginPage.class);
     }
     
     /**
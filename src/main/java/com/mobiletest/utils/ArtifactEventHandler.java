@@ -0,0 +1,25 @@
+package com.mobiletest.utils;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * ArtifactEventHandler creates the report thumbnail of every stored screenshot on the bus's
+ * artifacts thread, so the screenshot writers only ever write the full image.
+ */
+final class ArtifactEventHandler implements Consumer<TestEvent> {
+
+    @Override
+    public void accept(TestEvent event) {
+        if (event.getName() == null) {
+            return;
+        }
+        // The report already links the thumbnail and falls back to the full image until it exists
+        try {
+            ArtifactStore.screenshots().thumbnail(Paths.get(event.getName()));
+        } catch (IOException e) {
+            System.err.println("Failed to create thumbnail for " + event.getName() + ": " + e.getMessage());
+        }
+    }
+}
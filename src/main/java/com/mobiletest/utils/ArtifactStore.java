@@ -0,0 +1,255 @@
+package com.mobiletest.utils;
+
+import com.google.gson.Gson;
+import com.mobiletest.config.AppiumConfig;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+/**
+ * ArtifactStore keeps artifacts such as screenshots under the SHA-256 of their content.
+ * Identical captures share one file, names can't collide however many threads capture at once,
+ * and every capture is appended to index.jsonl with its label and whether it added a file.
+ * Downscaled JPEG thumbnails live in thumbs/ under the same hash; the report shows those and
+ * links the full image.
+ */
+public class ArtifactStore {
+
+    private static final String INDEX_FILE = "index.jsonl";
+    private static final String THUMBNAIL_DIRECTORY = "thumbs";
+    private static final Pattern HASH_NAME = Pattern.compile("[0-9a-f]{64}\\.\\w+");
+    private static final Gson GSON = new Gson();
+    private static final ArtifactStore SCREENSHOTS = new ArtifactStore(Paths.get("test-output/screenshots"));
+
+    private final Path root;
+    private final int thumbnailWidth;
+    // Hashes known to be on disk, so repeated captures skip the file system check
+    private final Set<String> stored = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor
+     * @param root Directory holding the artifacts, thumbs/ and index.jsonl
+     */
+    public ArtifactStore(Path root) {
+        this.root = root;
+        this.thumbnailWidth = Integer.parseInt(Objects.toString(AppiumConfig.getProperty("report.thumbnail.width"), "320"));
+    }
+
+    /**
+     * Get the store for test screenshots
+     * @return Screenshot store
+     */
+    public static ArtifactStore screenshots() {
+        return SCREENSHOTS;
+    }
+
+    /**
+     * Store content unless identical content is already stored, and record the capture in the index
+     * @param content File content
+     * @param extension File extension without the dot, e.g. png
+     * @param label What the capture shows, e.g. a test name
+     * @return Path of the stored file
+     * @throws IOException if the file or index can't be written
+     */
+    public Path store(byte[] content, String extension, String label) throws IOException {
+        return store(ByteBuffer.wrap(content), extension, label);
+    }
+
+    /**
+     * Store content unless identical content is already stored, and record the capture in the index.
+     * The buffer is hashed and written through a file channel as is, without copying it.
+     * @param content File content, from its position to its limit; the position is not changed
+     * @param extension File extension without the dot, e.g. png
+     * @param label What the capture shows, e.g. a test name
+     * @return Path of the stored file
+     * @throws IOException if the file or index can't be written
+     */
+    public Path store(ByteBuffer content, String extension, String label) throws IOException {
+        String hash = sha256(content);
+        Path target = root.resolve(hash + "." + extension);
+        boolean added = false;
+        if (!stored.contains(hash) && !Files.exists(target)) {
+            Files.createDirectories(root);
+            // Write beside and rename, so a concurrent capture of the same screen never sees half a file
+            Path temporary = Files.createTempFile(root, hash, ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer remaining = content.duplicate();
+                while (remaining.hasRemaining()) {
+                    channel.write(remaining);
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            added = true;
+        }
+        stored.add(hash);
+        appendIndex(hash, extension, label, content.remaining(), added);
+        return target;
+    }
+
+    /**
+     * Create the thumbnail of a stored image if it doesn't exist yet
+     * @param artifact Stored image
+     * @return Thumbnail path
+     * @throws IOException if the image can't be read or the thumbnail can't be written
+     */
+    public Path thumbnail(Path artifact) throws IOException {
+        Path thumbnail = thumbnailPath(artifact);
+        if (thumbnail == null) {
+            throw new IOException("Not a stored artifact: " + artifact);
+        }
+        if (Files.exists(thumbnail)) {
+            return thumbnail;
+        }
+        BufferedImage image = ImageIO.read(artifact.toFile());
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + artifact);
+        }
+        int width = Math.min(thumbnailWidth, image.getWidth());
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        // JPEG has no alpha channel; draw onto an opaque RGB canvas
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        Files.createDirectories(thumbnail.getParent());
+        Path temporary = Files.createTempFile(thumbnail.getParent(), hashOf(artifact), ".tmp");
+        ImageIO.write(scaled, "jpg", temporary.toFile());
+        Files.move(temporary, thumbnail, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return thumbnail;
+    }
+
+    /**
+     * Get the content hash from the name of a stored artifact
+     * @param artifact Artifact path
+     * @return Hash, or null if the file isn't named by its hash
+     */
+    public static String hashOf(Path artifact) {
+        String fileName = artifact.getFileName().toString();
+        return HASH_NAME.matcher(fileName).matches() ? fileName.substring(0, fileName.indexOf('.')) : null;
+    }
+
+    /**
+     * Get where the thumbnail of a stored artifact lives, whether or not it exists yet
+     * @param artifact Artifact path
+     * @return Thumbnail path, or null if the file isn't named by its hash
+     */
+    public static Path thumbnailPath(Path artifact) {
+        String hash = hashOf(artifact);
+        Path parent = artifact.getParent() != null ? artifact.getParent() : Paths.get("");
+        return hash == null ? null : parent.resolve(THUMBNAIL_DIRECTORY).resolve(hash + ".jpg");
+    }
+
+    /**
+     * Hash a byte array
+     * @param content Content
+     * @return Lower-case hex SHA-256
+     */
+    public static String sha256(byte[] content) {
+        return sha256(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Hash a buffer's remaining content without moving its position
+     * @param content Content
+     * @return Lower-case hex SHA-256
+     */
+    public static String sha256(ByteBuffer content) {
+        MessageDigest digest = newDigest();
+        digest.update(content.duplicate());
+        return hex(digest.digest());
+    }
+
+    /**
+     * Hash a file's content
+     * @param file File
+     * @return Lower-case hex SHA-256
+     * @throws IOException if the file can't be read
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Append one capture to the index
+     * @param hash Content hash
+     * @param extension File extension
+     * @param label Capture label
+     * @param bytes Content size
+     * @param added true if the capture added a file, false if it matched stored content
+     * @throws IOException if the index can't be written
+     */
+    private synchronized void appendIndex(String hash, String extension, String label, int bytes, boolean added)
+            throws IOException {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("hash", hash);
+        entry.put("file", hash + "." + extension);
+        entry.put("label", label);
+        entry.put("time", System.currentTimeMillis());
+        entry.put("bytes", bytes);
+        entry.put("added", added);
+        try (Writer writer = Files.newBufferedWriter(root.resolve(INDEX_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(GSON.toJson(entry));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Create a SHA-256 digest
+     * @return Digest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Format bytes as lower-case hex
+     * @param bytes Bytes
+     * @return Hex string
+     */
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
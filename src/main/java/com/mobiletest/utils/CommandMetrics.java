@@ -0,0 +1,131 @@
+package com.mobiletest.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CommandMetrics keeps latency histograms for every W3C command sent to the driver.
+ * Suite-wide histograms are keyed by page object and command; a second, per-thread set
+ * keyed by command covers the test currently running on that thread.
+ */
+public class CommandMetrics {
+
+    private static final String NO_PAGE = "(no page)";
+    private static final Map<String, Map<String, LatencyHistogram>> suiteHistograms = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> currentPage = ThreadLocal.withInitial(() -> NO_PAGE);
+    private static final ThreadLocal<Map<String, LatencyHistogram>> testHistograms =
+            ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private CommandMetrics() {
+    }
+
+    /**
+     * Record the latency of one driver command
+     * @param command W3C command name, e.g. findElement or getPageSource
+     * @param nanos Round-trip time in nanoseconds
+     */
+    public static void record(String command, long nanos) {
+        suiteHistograms.computeIfAbsent(currentPage.get(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(command, k -> new LatencyHistogram())
+                .record(nanos);
+        testHistograms.get().computeIfAbsent(command, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Attribute subsequent commands on this thread to a page object
+     * @param pageName Page object name
+     */
+    public static void setCurrentPage(String pageName) {
+        currentPage.set(pageName);
+    }
+
+    /**
+     * Get the page object that commands on this thread are attributed to
+     * @return Page object name
+     */
+    public static String getCurrentPage() {
+        return currentPage.get();
+    }
+
+    /**
+     * Start collecting a fresh set of per-test histograms on this thread
+     */
+    public static void startTest() {
+        currentPage.set(NO_PAGE);
+        // Reuse the histograms of the previous test rather than allocating new ones
+        testHistograms.get().values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Build a table of the current test's command latencies
+     * @return Table rows including a header row, or an empty array if nothing was recorded
+     */
+    public static String[][] getTestTable() {
+        List<String[]> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(testHistograms.get()).entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                rows.add(row(null, entry.getKey(), entry.getValue()));
+            }
+        }
+        return withHeader(rows, false);
+    }
+
+    /**
+     * Build a table of suite-wide command latencies per page object
+     * @return Table rows including a header row, or an empty array if nothing was recorded
+     */
+    public static String[][] getSuiteTable() {
+        List<String[]> rows = new ArrayList<>();
+        for (Map.Entry<String, Map<String, LatencyHistogram>> page : new TreeMap<>(suiteHistograms).entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(page.getValue()).entrySet()) {
+                rows.add(row(page.getKey(), entry.getKey(), entry.getValue()));
+            }
+        }
+        return withHeader(rows, true);
+    }
+
+    /**
+     * Format one histogram as a table row
+     * @param page Page object name, or null to omit the column
+     * @param command Command name
+     * @param histogram Recorded latencies
+     * @return Table row
+     */
+    private static String[] row(String page, String command, LatencyHistogram histogram) {
+        List<String> cells = new ArrayList<>();
+        if (page != null) {
+            cells.add(page);
+        }
+        cells.add(command);
+        cells.add(String.valueOf(histogram.getCount()));
+        cells.add(String.format("%.1f", histogram.getPercentileMillis(50)));
+        cells.add(String.format("%.1f", histogram.getPercentileMillis(90)));
+        cells.add(String.format("%.1f", histogram.getPercentileMillis(99)));
+        cells.add(String.format("%.1f", histogram.getMaxMillis()));
+        return cells.toArray(new String[0]);
+    }
+
+    /**
+     * Prepend the header row to the table rows
+     * @param rows Table rows
+     * @param withPage true if the rows include the page column
+     * @return Table including the header row
+     */
+    private static String[][] withHeader(List<String[]> rows, boolean withPage) {
+        if (rows.isEmpty()) {
+            return new String[0][];
+        }
+        String[] header = withPage
+                ? new String[]{"Page", "Command", "Count", "p50 (ms)", "p90 (ms)", "p99 (ms)", "Max (ms)"}
+                : new String[]{"Command", "Count", "p50 (ms)", "p90 (ms)", "p99 (ms)", "Max (ms)"};
+        rows.add(0, header);
+        return rows.toArray(new String[0][]);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mobiletest.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DurationHistory keeps per-test-method durations across runs.
+ * Durations are smoothed so one slow run doesn't dominate the estimate.
+ */
+public class DurationHistory {
+
+    private static final String HISTORY_FILE = "test-output/history/test-durations.properties";
+    private static final double SMOOTHING = 0.5;
+    private static Map<String, Long> durations;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private DurationHistory() {
+    }
+
+    /**
+     * Build the history key for a test method
+     * @param className Fully qualified test class name
+     * @param methodName Test method name
+     * @return History key
+     */
+    public static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    /**
+     * Get the recorded duration of a test method
+     * @param key History key
+     * @return Duration in milliseconds, or -1 if the method has no history
+     */
+    public static long getDuration(String key) {
+        return load().getOrDefault(key, -1L);
+    }
+
+    /**
+     * Record a new duration sample for a test method
+     * @param key History key
+     * @param durationMillis Observed duration in milliseconds
+     */
+    public static void record(String key, long durationMillis) {
+        load().merge(key, durationMillis,
+                (previous, sample) -> Math.round(previous * (1 - SMOOTHING) + sample * SMOOTHING));
+    }
+
+    /**
+     * Persist the history to file
+     */
+    public static synchronized void save() {
+        if (durations == null || durations.isEmpty()) {
+            return;
+        }
+        File file = new File(HISTORY_FILE);
+        file.getParentFile().mkdirs();
+
+        Properties properties = new Properties();
+        durations.forEach((key, value) -> properties.setProperty(key, String.valueOf(value)));
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            properties.store(fos, "Smoothed test method durations in milliseconds");
+        } catch (IOException e) {
+            System.err.println("Failed to save test duration history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load the history from file on first use
+     * @return Mutable duration map
+     */
+    private static synchronized Map<String, Long> load() {
+        if (durations == null) {
+            durations = new ConcurrentHashMap<>();
+            Properties properties = new Properties();
+            try (FileInputStream fis = new FileInputStream(HISTORY_FILE)) {
+                properties.load(fis);
+                for (String key : properties.stringPropertyNames()) {
+                    try {
+                        durations.put(key, Long.parseLong(properties.getProperty(key)));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            } catch (IOException e) {
+                // First run - no history yet
+            }
+        }
+        return durations;
+    }
+}
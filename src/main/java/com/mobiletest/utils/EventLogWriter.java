@@ -0,0 +1,93 @@
+package com.mobiletest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * EventLogWriter appends every bus event to the run's events.jsonl as it happens and feeds
+ * the same record to a {@link ReportRenderer}, which builds the paged HTML report next to it.
+ * Each line is flushed before the next event is taken, so a killed run keeps its log up to the
+ * last event and can be rendered afterwards with {@code ReportRenderer.main}. The log doubles as
+ * this worker's report shard for {@link ReportMerger}.
+ */
+final class EventLogWriter implements Consumer<TestEvent> {
+
+    static final String EVENT_LOG = "events.jsonl";
+    private static final String REPORT_PATH = "test-output/reports/";
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+    // pid@host of this JVM
+    private static final String WORKER = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final Path directory;
+    private final Writer log;
+    private final ReportRenderer renderer;
+
+    /**
+     * Constructor
+     * @param directory Run directory for the log and the HTML pages
+     * @param pageSize Tests per HTML page
+     * @throws IOException if the log can't be created
+     */
+    EventLogWriter(Path directory, int pageSize) throws IOException {
+        Files.createDirectories(directory);
+        this.log = Files.newBufferedWriter(directory.resolve(EVENT_LOG), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.directory = directory;
+        this.renderer = new ReportRenderer(directory, pageSize);
+        // Every log starts by naming its worker, so shards of a split run stay apart when merged
+        append(ReportRecord.runStarted(WORKER));
+    }
+
+    /**
+     * Create a writer for a new run directory named by the start time and this worker.
+     * The worker id keeps forks that start in the same second on one host out of each
+     * other's directory.
+     * @param pageSize Tests per HTML page
+     * @return Writer
+     * @throws IOException if the log can't be created
+     */
+    static EventLogWriter create(int pageSize) throws IOException {
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+        String worker = WORKER.replaceAll("[^A-Za-z0-9._@-]", "_");
+        Path directory = Paths.get(REPORT_PATH, "TestReport_" + timestamp + "_" + worker);
+        System.out.println("Test report: " + directory.resolve(ReportRenderer.INDEX));
+        return new EventLogWriter(directory, pageSize);
+    }
+
+    @Override
+    public void accept(TestEvent event) {
+        ReportRecord record = ReportRecord.of(event);
+        if (event.getType() == TestEvent.Type.ATTACHMENT && record.name != null) {
+            record.name = directory.toAbsolutePath().relativize(Paths.get(record.name).toAbsolutePath())
+                    .toString().replace('\\', '/');
+        }
+        append(record);
+    }
+
+    /**
+     * Write a record to the log and hand it to the renderer
+     * @param record Record
+     */
+    private void append(ReportRecord record) {
+        try {
+            log.write(GSON.toJson(record));
+            log.write('\n');
+            log.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to append to event log: " + e.getMessage());
+        }
+        renderer.accept(record);
+    }
+}
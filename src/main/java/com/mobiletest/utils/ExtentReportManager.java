@@ -92,9 +92,10 @@ public class ExtentReportManager {
     }
     
     /**
-     * Flush the reports to file
+     * Flush the reports to file, once the event bus has delivered everything published so far
      */
     public static void flushReports() {
+        TestEventBus.drain();
         if (extent != null) {
             extent.flush();
         }
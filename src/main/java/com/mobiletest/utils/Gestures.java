@@ -0,0 +1,236 @@
+package com.mobiletest.utils;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Gestures builds complete W3C pointer sequences on the client and sends each gesture
+ * with a single perform call, so a swipe or pinch costs one round trip however many
+ * pointer moves it contains. Coordinates are viewport pixels; callers usually take them
+ * from element bounds in a page snapshot.
+ */
+public class Gestures {
+
+    private static final Duration SWIPE_DURATION = Duration.ofMillis(400);
+    private static final Duration FLING_DURATION = Duration.ofMillis(80);
+    private static final Duration LONG_PRESS_DURATION = Duration.ofMillis(1000);
+    private static final Duration DRAG_HOLD_DURATION = Duration.ofMillis(600);
+    private static final Duration DRAG_MOVE_DURATION = Duration.ofMillis(800);
+
+    private final AndroidDriver driver;
+
+    /**
+     * Constructor
+     * @param driver AndroidDriver instance
+     */
+    public Gestures(AndroidDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Tap a point
+     * @param point Point to tap
+     */
+    public void tap(Point point) {
+        PointerInput finger = finger("finger");
+        Sequence sequence = new Sequence(finger, 0);
+        moveTo(sequence, finger, point, Duration.ZERO);
+        press(sequence, finger);
+        release(sequence, finger);
+        perform(sequence);
+    }
+
+    /**
+     * Swipe from one point to another
+     * @param from Start point
+     * @param to End point
+     * @param duration How long the finger takes to travel
+     */
+    public void swipe(Point from, Point to, Duration duration) {
+        PointerInput finger = finger("finger");
+        Sequence sequence = new Sequence(finger, 0);
+        moveTo(sequence, finger, from, Duration.ZERO);
+        press(sequence, finger);
+        moveTo(sequence, finger, to, duration);
+        release(sequence, finger);
+        perform(sequence);
+    }
+
+    /**
+     * Swipe across an area so its content scrolls in the given direction
+     * @param area Area to swipe in, e.g. list bounds
+     * @param direction Scroll direction; the finger moves the opposite way
+     */
+    public void swipe(Rectangle area, ScrollUtils.Direction direction) {
+        Point[] path = path(area, direction);
+        swipe(path[0], path[1], SWIPE_DURATION);
+    }
+
+    /**
+     * Fling an area: a short, fast swipe that leaves the content scrolling with momentum
+     * @param area Area to fling, e.g. list bounds
+     * @param direction Scroll direction; the finger moves the opposite way
+     */
+    public void fling(Rectangle area, ScrollUtils.Direction direction) {
+        Point[] path = path(area, direction);
+        swipe(path[0], path[1], FLING_DURATION);
+    }
+
+    /**
+     * Press and hold a point
+     * @param point Point to press
+     * @param hold How long to hold
+     */
+    public void longPress(Point point, Duration hold) {
+        PointerInput finger = finger("finger");
+        Sequence sequence = new Sequence(finger, 0);
+        moveTo(sequence, finger, point, Duration.ZERO);
+        press(sequence, finger);
+        sequence.addAction(new Pause(finger, hold));
+        release(sequence, finger);
+        perform(sequence);
+    }
+
+    /**
+     * Press and hold a point for the platform long-press time
+     * @param point Point to press
+     */
+    public void longPress(Point point) {
+        longPress(point, LONG_PRESS_DURATION);
+    }
+
+    /**
+     * Pick something up with a long press, carry it to a point and drop it there
+     * @param from Point to pick up at
+     * @param to Point to drop at
+     */
+    public void dragAndDrop(Point from, Point to) {
+        PointerInput finger = finger("finger");
+        Sequence sequence = new Sequence(finger, 0);
+        moveTo(sequence, finger, from, Duration.ZERO);
+        press(sequence, finger);
+        sequence.addAction(new Pause(finger, DRAG_HOLD_DURATION));
+        moveTo(sequence, finger, to, DRAG_MOVE_DURATION);
+        release(sequence, finger);
+        perform(sequence);
+    }
+
+    /**
+     * Two-finger pinch over an area: fingers move together to zoom out, apart to zoom in
+     * @param area Area to pinch, e.g. image bounds
+     * @param zoomIn true to spread the fingers apart, false to pinch them together
+     */
+    public void pinch(Rectangle area, boolean zoomIn) {
+        Point center = center(area);
+        int near = Math.max(1, Math.min(area.getWidth(), area.getHeight()) / 10);
+        int far = Math.max(near + 1, Math.min(area.getWidth(), area.getHeight()) * 2 / 5);
+        int start = zoomIn ? near : far;
+        int end = zoomIn ? far : near;
+
+        // Both fingers move along the diagonal, mirrored around the center, in lockstep
+        PointerInput first = finger("finger1");
+        PointerInput second = finger("finger2");
+        Sequence firstSequence = new Sequence(first, 0);
+        Sequence secondSequence = new Sequence(second, 0);
+        moveTo(firstSequence, first, offset(center, -start), Duration.ZERO);
+        moveTo(secondSequence, second, offset(center, start), Duration.ZERO);
+        press(firstSequence, first);
+        press(secondSequence, second);
+        moveTo(firstSequence, first, offset(center, -end), SWIPE_DURATION);
+        moveTo(secondSequence, second, offset(center, end), SWIPE_DURATION);
+        release(firstSequence, first);
+        release(secondSequence, second);
+        driver.perform(Arrays.asList(firstSequence, secondSequence));
+    }
+
+    /**
+     * Get the center of an area
+     * @param area Area
+     * @return Center point
+     */
+    public static Point center(Rectangle area) {
+        return new Point(area.getX() + area.getWidth() / 2, area.getY() + area.getHeight() / 2);
+    }
+
+    /**
+     * Work out the start and end of a swipe that scrolls an area in a direction
+     * @param area Area to swipe in
+     * @param direction Scroll direction
+     * @return {start, end}
+     */
+    private static Point[] path(Rectangle area, ScrollUtils.Direction direction) {
+        Point center = center(area);
+        int dx = direction.isVertical() ? 0 : area.getWidth() * 3 / 8;
+        int dy = direction.isVertical() ? area.getHeight() * 3 / 8 : 0;
+        // Scrolling DOWN or RIGHT means dragging the content up or left
+        int sign = direction == ScrollUtils.Direction.DOWN || direction == ScrollUtils.Direction.RIGHT ? 1 : -1;
+        return new Point[]{
+                new Point(center.getX() + sign * dx, center.getY() + sign * dy),
+                new Point(center.getX() - sign * dx, center.getY() - sign * dy)
+        };
+    }
+
+    /**
+     * Move a point along the diagonal
+     * @param point Origin
+     * @param distance Offset on both axes
+     * @return Moved point
+     */
+    private static Point offset(Point point, int distance) {
+        return new Point(point.getX() + distance, point.getY() + distance);
+    }
+
+    /**
+     * Create a touch pointer
+     * @param name Pointer name, unique within one perform call
+     * @return Touch pointer
+     */
+    private static PointerInput finger(String name) {
+        return new PointerInput(PointerInput.Kind.TOUCH, name);
+    }
+
+    /**
+     * Add a pointer move to a sequence
+     * @param sequence Sequence to extend
+     * @param finger Pointer of the sequence
+     * @param point Target point
+     * @param duration Travel time
+     */
+    private static void moveTo(Sequence sequence, PointerInput finger, Point point, Duration duration) {
+        sequence.addAction(finger.createPointerMove(duration, PointerInput.Origin.viewport(), point.getX(), point.getY()));
+    }
+
+    /**
+     * Add a finger-down action to a sequence
+     * @param sequence Sequence to extend
+     * @param finger Pointer of the sequence
+     */
+    private static void press(Sequence sequence, PointerInput finger) {
+        sequence.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+    }
+
+    /**
+     * Add a finger-up action to a sequence
+     * @param sequence Sequence to extend
+     * @param finger Pointer of the sequence
+     */
+    private static void release(Sequence sequence, PointerInput finger) {
+        sequence.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+    }
+
+    /**
+     * Send a single-pointer gesture
+     * @param sequence Pointer sequence
+     */
+    private void perform(Sequence sequence) {
+        driver.perform(Collections.singletonList(sequence));
+    }
+}
@@ -0,0 +1,61 @@
+package com.mobiletest.utils;
+
+import com.mobiletest.config.AppiumConfig;
+import io.appium.java_client.android.AndroidDriver;
+
+import java.time.Duration;
+
+/**
+ * ImplicitWaitScope turns the driver's implicit wait off for the duration of a block
+ * and restores the configured value afterwards.
+ * Explicit waits and presence checks run inside a scope so their timeouts don't stack
+ * on top of the implicit wait. Scopes nest; only the outermost one talks to the driver,
+ * and with the default implicit wait of 0 no scope sends any command at all.
+ *
+ * <pre>
+ * try (ImplicitWaitScope ignored = ImplicitWaitScope.disable(driver)) {
+ *     return driver.findElements(locator).isEmpty();
+ * }
+ * </pre>
+ */
+public class ImplicitWaitScope implements AutoCloseable {
+
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final AndroidDriver driver;
+    private final boolean outermost;
+
+    /**
+     * Constructor
+     * @param driver AndroidDriver instance
+     */
+    private ImplicitWaitScope(AndroidDriver driver) {
+        this.driver = driver;
+        this.outermost = depth.get()[0] == 0;
+        if (outermost && AppiumConfig.getImplicitWait() > 0) {
+            driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        }
+        depth.get()[0]++;
+    }
+
+    /**
+     * Disable the implicit wait until the returned scope is closed
+     * @param driver AndroidDriver instance
+     * @return Scope to close when done
+     */
+    public static ImplicitWaitScope disable(AndroidDriver driver) {
+        return new ImplicitWaitScope(driver);
+    }
+
+    /**
+     * Restore the configured implicit wait if this is the outermost scope
+     */
+    @Override
+    public void close() {
+        depth.get()[0]--;
+        int implicitWait = AppiumConfig.getImplicitWait();
+        if (outermost && implicitWait > 0) {
+            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.mobiletest.utils;
+
+import com.mobiletest.config.AppiumConfig;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * InputUtils sets text field values with as few driver commands as possible.
+ * "mobile: replaceElementValue" replaces the whole value in one command, so long strings
+ * such as descriptions are not typed character by character and need no separate clear().
+ */
+public class InputUtils {
+
+    private final AndroidDriver driver;
+    private final int fastInputMinLength;
+    private boolean replaceSupported = true;
+
+    /**
+     * Constructor reads the fast-input threshold from configuration
+     * @param driver AndroidDriver instance
+     */
+    public InputUtils(AndroidDriver driver) {
+        this.driver = driver;
+        this.fastInputMinLength = Integer.parseInt(Objects.toString(AppiumConfig.getProperty("input.fast.min.length"), "32"));
+    }
+
+    /**
+     * Type text into a field, taking the single-command path for long strings
+     * @param element Input field
+     * @param text Text to enter
+     */
+    public void enterText(WebElement element, String text) {
+        if (text.length() >= fastInputMinLength && replaceValue(element, text)) {
+            return;
+        }
+        element.clear();
+        element.sendKeys(text);
+    }
+
+    /**
+     * Replace the value of a field with one command, falling back to clear and type
+     * @param element Input field
+     * @param text New value
+     */
+    public void setValue(WebElement element, String text) {
+        if (!replaceValue(element, text)) {
+            element.clear();
+            element.sendKeys(text);
+        }
+    }
+
+    /**
+     * Hide the soft keyboard if it is showing
+     */
+    public void hideKeyboard() {
+        if (driver.isKeyboardShown()) {
+            driver.hideKeyboard();
+        }
+    }
+
+    /**
+     * Replace a field value through "mobile: replaceElementValue"
+     * @param element Input field
+     * @param text New value
+     * @return false if the server or element doesn't support it
+     */
+    private boolean replaceValue(WebElement element, String text) {
+        if (!replaceSupported || !(element instanceof RemoteWebElement)) {
+            return false;
+        }
+        Map<String, Object> args = new HashMap<>();
+        args.put("elementId", ((RemoteWebElement) element).getId());
+        args.put("text", text);
+        try {
+            driver.executeScript("mobile: replaceElementValue", args);
+            return true;
+        } catch (UnsupportedCommandException e) {
+            replaceSupported = false;
+            return false;
+        } catch (WebDriverException e) {
+            if (!String.valueOf(e.getMessage()).contains("Unknown mobile command")) {
+                throw e;
+            }
+            replaceSupported = false;
+            return false;
+        }
+    }
+}
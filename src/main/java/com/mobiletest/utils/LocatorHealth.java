@@ -0,0 +1,338 @@
+package com.mobiletest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.openqa.selenium.By;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LocatorHealth records how every locator used by the page objects performs: lookup latency,
+ * retries (extra polls of a wait, or re-resolving a stale element) and the share of lookups that
+ * found nothing. Presence and absence checks that find nothing are counted as absent rather than
+ * failed, since "not there" is the answer such a check is asking for. The numbers accumulate
+ * across runs in a JSON file so the report ranks the locators that cost the most time overall,
+ * per page, and suggests cheaper equivalents for XPath.
+ */
+public class LocatorHealth {
+
+    private static final String HEALTH_FILE = "test-output/history/locator-health.json";
+    private static final Pattern XPATH_ATTRIBUTE =
+            Pattern.compile("@(resource-id|text|content-desc)\\s*=\\s*['\"]([^'\"]+)['\"]");
+    private static final Pattern XPATH_CLASS_ONLY = Pattern.compile("^//([\\w.$]+)$");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private static volatile Map<String, Stats> stats;
+
+    /**
+     * Accumulated numbers for one locator on one page; serialized as is
+     */
+    private static final class Stats {
+        String page;
+        String strategy;
+        String value;
+        long lookups;
+        long failures;
+        long absent;
+        long retries;
+        long totalNanos;
+        long maxNanos;
+
+        double meanMillis() {
+            return lookups == 0 ? 0 : totalNanos / 1_000_000.0 / lookups;
+        }
+
+        double failurePercent() {
+            return lookups == 0 ? 0 : failures * 100.0 / lookups;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private LocatorHealth() {
+    }
+
+    /**
+     * Record one lookup, attributed to the page currently active on this thread
+     * @param locator Element locator
+     * @param nanos Time spent, including any polling
+     * @param attempts Number of times the element was looked up; extra attempts count as retries
+     * @param succeeded false if the lookup or wait ended without the expected element
+     */
+    public static void record(By locator, long nanos, int attempts, boolean succeeded) {
+        add(locator, nanos, attempts, !succeeded, false);
+    }
+
+    /**
+     * Record one presence or absence check, attributed to the page currently active on this thread.
+     * A check that finds nothing counts as absent, not as a failure of the locator.
+     * @param locator Element locator
+     * @param nanos Time spent, including any polling
+     * @param attempts Number of times the element was looked up; extra attempts count as retries
+     * @param found true if the element was there
+     */
+    public static void recordCheck(By locator, long nanos, int attempts, boolean found) {
+        add(locator, nanos, attempts, false, !found);
+    }
+
+    /**
+     * Add one lookup to the entry of a locator
+     * @param locator Element locator
+     * @param nanos Time spent
+     * @param attempts Number of times the element was looked up
+     * @param failed true if the lookup ended without the expected element
+     * @param absent true if a check found nothing, as it may expect
+     */
+    private static void add(By locator, long nanos, int attempts, boolean failed, boolean absent) {
+        Stats entry = entry(locator);
+        synchronized (entry) {
+            entry.lookups++;
+            entry.retries += Math.max(0, attempts - 1);
+            entry.totalNanos += nanos;
+            entry.maxNanos = Math.max(entry.maxNanos, nanos);
+            if (failed) {
+                entry.failures++;
+            }
+            if (absent) {
+                entry.absent++;
+            }
+        }
+    }
+
+    /**
+     * Record that a cached element went stale and had to be looked up again
+     * @param locator Element locator
+     */
+    public static void recordRetry(By locator) {
+        Stats entry = entry(locator);
+        synchronized (entry) {
+            entry.retries++;
+        }
+    }
+
+    /**
+     * Build the ranked report: per page, the locators costing the most total time first
+     * @return Table rows including a header row, or an empty array if nothing was recorded
+     */
+    public static String[][] getReport() {
+        List<Stats> entries = snapshotEntries();
+        if (entries.isEmpty()) {
+            return new String[0][];
+        }
+        Map<String, Double> strategyMeans = strategyMeans(entries);
+        entries.sort(Comparator.comparing((Stats s) -> s.page)
+                .thenComparing(Comparator.comparingLong((Stats s) -> s.totalNanos).reversed())
+                .thenComparing(Comparator.comparingDouble(Stats::failurePercent).reversed()));
+
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"Page", "Locator", "Lookups", "Mean (ms)", "Max (ms)", "Retries", "Failure %",
+                "Absent", "Total (s)", "Advice"});
+        for (Stats s : entries) {
+            rows.add(new String[]{
+                    s.page,
+                    s.strategy + ": " + s.value,
+                    String.valueOf(s.lookups),
+                    String.format("%.1f", s.meanMillis()),
+                    String.format("%.1f", s.maxNanos / 1_000_000.0),
+                    String.valueOf(s.retries),
+                    String.format("%.1f", s.failurePercent()),
+                    String.valueOf(s.absent),
+                    String.format("%.1f", s.totalNanos / 1_000_000_000.0),
+                    advice(s, strategyMeans)
+            });
+        }
+        return rows.toArray(new String[0][]);
+    }
+
+    /**
+     * Persist the accumulated numbers to file
+     */
+    public static synchronized void save() {
+        if (stats == null || stats.isEmpty()) {
+            return;
+        }
+        File file = new File(HEALTH_FILE);
+        file.getParentFile().mkdirs();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(snapshotEntries(), writer);
+        } catch (IOException e) {
+            System.err.println("Failed to save locator health: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flag expensive locator types and suggest a cheaper one with the measured difference
+     * @param s Locator numbers
+     * @param strategyMeans Mean lookup time per strategy over all recorded locators
+     * @return Advice text, empty if the locator is fine
+     */
+    private static String advice(Stats s, Map<String, Double> strategyMeans) {
+        if (!"xpath".equals(s.strategy)) {
+            return s.failurePercent() >= 20 ? "Flaky: often not found" : "";
+        }
+        String flag = s.value.startsWith("//") ? "XPath, searches the whole tree" : "XPath";
+        String replacement = null;
+        String replacementStrategy = null;
+        Matcher attribute = XPATH_ATTRIBUTE.matcher(s.value);
+        Matcher classOnly = XPATH_CLASS_ONLY.matcher(s.value);
+        if (attribute.find()) {
+            switch (attribute.group(1)) {
+                case "resource-id":
+                    replacement = "By.id(\"" + attribute.group(2) + "\")";
+                    replacementStrategy = "id";
+                    break;
+                case "content-desc":
+                    replacement = "AppiumBy.accessibilityId(\"" + attribute.group(2) + "\")";
+                    replacementStrategy = "accessibility id";
+                    break;
+                default:
+                    replacement = "AppiumBy.androidUIAutomator(\"new UiSelector().text(\\\""
+                            + attribute.group(2) + "\\\")\")";
+                    replacementStrategy = "-android uiautomator";
+                    break;
+            }
+        } else if (classOnly.find()) {
+            replacement = "AppiumBy.androidUIAutomator(\"new UiSelector().className(\\\""
+                    + classOnly.group(1) + "\\\")\")";
+            replacementStrategy = "-android uiautomator";
+        }
+        if (replacement == null) {
+            return flag + "; add a resource-id to the view";
+        }
+        Double measured = strategyMeans.get(replacementStrategy);
+        String cost = measured == null
+                ? ""
+                : String.format(" (%s lookups average %.1f ms vs %.1f ms for this XPath)",
+                        replacementStrategy, measured, s.meanMillis());
+        return flag + "; use " + replacement + cost;
+    }
+
+    /**
+     * Compute the mean lookup time per locator strategy
+     * @param entries All recorded locators
+     * @return Strategy to mean milliseconds
+     */
+    private static Map<String, Double> strategyMeans(List<Stats> entries) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (Stats s : entries) {
+            long[] total = totals.computeIfAbsent(s.strategy, k -> new long[2]);
+            total[0] += s.totalNanos;
+            total[1] += s.lookups;
+        }
+        Map<String, Double> means = new HashMap<>();
+        totals.forEach((strategy, total) -> {
+            if (total[1] > 0) {
+                means.put(strategy, total[0] / 1_000_000.0 / total[1]);
+            }
+        });
+        return means;
+    }
+
+    /**
+     * Copy all entries under their locks so reports and saves see consistent numbers
+     * @return Copies of the entries
+     */
+    private static List<Stats> snapshotEntries() {
+        List<Stats> copies = new ArrayList<>();
+        for (Stats entry : load().values()) {
+            synchronized (entry) {
+                Stats copy = new Stats();
+                copy.page = entry.page;
+                copy.strategy = entry.strategy;
+                copy.value = entry.value;
+                copy.lookups = entry.lookups;
+                copy.failures = entry.failures;
+                copy.absent = entry.absent;
+                copy.retries = entry.retries;
+                copy.totalNanos = entry.totalNanos;
+                copy.maxNanos = entry.maxNanos;
+                copies.add(copy);
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Get the entry of a locator on the current page, creating it if needed
+     * @param locator Element locator
+     * @return Mutable entry
+     */
+    private static Stats entry(By locator) {
+        String strategy;
+        String value;
+        if (locator instanceof By.Remotable) {
+            By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+            strategy = parameters.using();
+            value = String.valueOf(parameters.value());
+        } else {
+            strategy = locator.getClass().getSimpleName();
+            value = locator.toString();
+        }
+        String page = CommandMetrics.getCurrentPage();
+        return load().computeIfAbsent(key(page, strategy, value), k -> {
+            Stats created = new Stats();
+            created.page = page;
+            created.strategy = strategy;
+            created.value = value;
+            return created;
+        });
+    }
+
+    /**
+     * Build the map key of a locator on a page
+     * @param page Page object name
+     * @param strategy Locator strategy
+     * @param value Locator value
+     * @return Map key
+     */
+    private static String key(String page, String strategy, String value) {
+        return page + "|" + strategy + "|" + value;
+    }
+
+    /**
+     * Load the numbers of earlier runs on first use
+     * @return Mutable map of entries
+     */
+    private static Map<String, Stats> load() {
+        Map<String, Stats> loaded = stats;
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (LocatorHealth.class) {
+            if (stats == null) {
+                Map<String, Stats> fromFile = new ConcurrentHashMap<>();
+                File file = new File(HEALTH_FILE);
+                if (file.exists()) {
+                    try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                        List<Stats> saved = GSON.fromJson(reader, new TypeToken<List<Stats>>() { }.getType());
+                        if (saved != null) {
+                            for (Stats s : saved) {
+                                fromFile.put(key(s.page, s.strategy, s.value), s);
+                            }
+                        }
+                    } catch (IOException | JsonParseException e) {
+                        System.err.println("Ignoring unreadable locator health file: " + e.getMessage());
+                    }
+                }
+                stats = fromFile;
+            }
+            return stats;
+        }
+    }
+}
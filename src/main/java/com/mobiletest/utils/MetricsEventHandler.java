@@ -0,0 +1,17 @@
+package com.mobiletest.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * MetricsEventHandler records finished test durations into the duration history
+ * on the bus's metrics thread.
+ */
+final class MetricsEventHandler implements Consumer<TestEvent> {
+
+    @Override
+    public void accept(TestEvent event) {
+        if (event.getName() != null) {
+            DurationHistory.record(event.getName(), event.getDurationMillis());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mobiletest.utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * ReportEventHandler writes test events into the Extent report. It runs on the bus's reporting
+ * thread, which makes it the only writer of report entries, and keeps an entry until the test
+ * has finished and all of its screenshots have been attached.
+ */
+final class ReportEventHandler implements Consumer<TestEvent> {
+
+    // Every type, SCREENSHOT included: it holds the entry open for the attachment written after TEST_FINISHED
+    static final Set<TestEvent.Type> TYPES = EnumSet.allOf(TestEvent.Type.class);
+
+    /**
+     * A report entry and what it still waits for
+     */
+    private static final class Entry {
+        final ExtentTest test;
+        int pendingScreenshots;
+        boolean finished;
+
+        Entry(ExtentTest test) {
+            this.test = test;
+        }
+    }
+
+    // Only touched on the reporting thread
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    @Override
+    public void accept(TestEvent event) {
+        if (event.getType() == TestEvent.Type.SYSTEM_INFO) {
+            ExtentReportManager.getReporter().setSystemInfo(event.getName(), event.getText());
+            return;
+        }
+        if (event.getType() == TestEvent.Type.TEST_STARTED) {
+            ExtentTest test = ExtentReportManager.getReporter().createTest(event.getName(), event.getText());
+            entries.put(event.getTestId(), new Entry(test));
+            return;
+        }
+        Entry entry = entries.get(event.getTestId());
+        if (entry == null) {
+            return;
+        }
+        switch (event.getType()) {
+            case LOG:
+                if (event.getThrowable() != null) {
+                    entry.test.log(event.getStatus(), event.getThrowable());
+                } else {
+                    entry.test.log(event.getStatus(), event.getText());
+                }
+                break;
+            case TABLE:
+                entry.test.info(MarkupHelper.createTable(event.getTable()));
+                break;
+            case SCREENSHOT:
+                entry.pendingScreenshots++;
+                break;
+            case ATTACHMENT:
+                entry.pendingScreenshots--;
+                if (event.getName() != null) {
+                    entry.test.addScreenCaptureFromPath(event.getName());
+                }
+                break;
+            case TEST_FINISHED:
+                entry.finished = true;
+                break;
+            default:
+                break;
+        }
+        if (entry.finished && entry.pendingScreenshots <= 0) {
+            entries.remove(event.getTestId());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.mobiletest.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReportMerger combines the report shards of a split run (the events.jsonl written by each JVM
+ * fork or machine) into one report. Shards are streamed one line at a time: test ids are offset
+ * per shard so they stay unique, artifacts are copied once per distinct content into the
+ * output's artifacts directory, and the records feed the same renderer a live run uses.
+ * The merged events.jsonl is itself a shard, so merges can be merged again. Work and memory are
+ * linear in the shards, plus one entry per artifact file.
+ */
+public class ReportMerger {
+
+    private static final String ARTIFACT_PATH = "artifacts/";
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final Path output;
+    private final ReportRenderer renderer;
+    // Artifact file as found in a shard -> stored name; and content hash -> stored name
+    private final Map<Path, String> copiedFiles = new HashMap<>();
+    private final Map<String, String> storedHashes = new HashMap<>();
+    private long idOffset;
+
+    /**
+     * Constructor
+     * @param output Directory for the merged log, artifacts and HTML pages
+     * @param pageSize Tests per HTML page
+     */
+    public ReportMerger(Path output, int pageSize) {
+        this.output = output;
+        this.renderer = new ReportRenderer(output, pageSize);
+    }
+
+    /**
+     * Merge report shards from the command line
+     * @param args Output directory followed by shard files or run directories
+     * @throws IOException if a shard can't be read or the output can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReportMerger <output directory> <events.jsonl or run directory>...");
+            return;
+        }
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(Paths.get(args[i]));
+        }
+        Path output = Paths.get(args[0]);
+        new ReportMerger(output, ReportRenderer.configuredPageSize()).merge(shards);
+        System.out.println("Merged " + shards.size() + " shards into " + output.resolve(ReportRenderer.INDEX));
+    }
+
+    /**
+     * Merge shards in the given order and finish the report
+     * @param shards Shard files, or run directories containing events.jsonl
+     * @throws IOException if a shard can't be read or the output can't be written
+     */
+    public void merge(List<Path> shards) throws IOException {
+        Files.createDirectories(output.resolve(ARTIFACT_PATH));
+        try (Writer log = Files.newBufferedWriter(output.resolve(EventLogWriter.EVENT_LOG), StandardCharsets.UTF_8)) {
+            for (Path shard : shards) {
+                Path file = Files.isDirectory(shard) ? shard.resolve(EventLogWriter.EVENT_LOG) : shard;
+                mergeShard(file, log);
+            }
+            renderer.finish();
+        }
+    }
+
+    /**
+     * Stream one shard into the merged log and report
+     * @param file Shard file
+     * @param log Merged log
+     * @throws IOException if the shard can't be read or the log can't be written
+     */
+    private void mergeShard(Path file, Writer log) throws IOException {
+        Path shardDirectory = file.toAbsolutePath().getParent();
+        long maxId = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                ReportRecord record;
+                try {
+                    record = GSON.fromJson(line, ReportRecord.class);
+                } catch (JsonParseException e) {
+                    // A worker killed mid-write leaves a truncated last line
+                    System.err.println("Skipping unreadable line in " + file + ": " + e.getMessage());
+                    continue;
+                }
+                if (TestEvent.Type.RUN_FINISHED.name().equals(record.type)) {
+                    // Only the merged report as a whole finishes
+                    continue;
+                }
+                if (record.test > 0) {
+                    maxId = Math.max(maxId, record.test);
+                    record.test += idOffset;
+                }
+                if (TestEvent.Type.ATTACHMENT.name().equals(record.type) && record.name != null) {
+                    record.name = storeArtifact(shardDirectory.resolve(record.name).normalize());
+                }
+                log.write(GSON.toJson(record));
+                log.write('\n');
+                renderer.accept(record);
+            }
+        }
+        idOffset += maxId;
+    }
+
+    /**
+     * Copy an artifact into the output unless the same content is already there
+     * @param file Artifact file referenced by a shard
+     * @return Path relative to the output directory; a link to the original file if it can't be copied
+     */
+    private String storeArtifact(Path file) {
+        String stored = copiedFiles.get(file);
+        if (stored != null) {
+            return stored;
+        }
+        if (!Files.isRegularFile(file)) {
+            System.err.println("Artifact not found, keeping its link: " + file);
+            return output.toAbsolutePath().relativize(file).toString().replace('\\', '/');
+        }
+        try {
+            // Content-addressed artifacts are named by their hash; only other files need reading
+            String hash = ArtifactStore.hashOf(file);
+            hash = hash != null ? hash : ArtifactStore.sha256(file);
+            stored = storedHashes.get(hash);
+            if (stored == null) {
+                String fileName = file.getFileName().toString();
+                int dot = fileName.lastIndexOf('.');
+                stored = ARTIFACT_PATH + hash + (dot >= 0 ? fileName.substring(dot) : "");
+                Path target = output.resolve(stored);
+                if (!Files.exists(target)) {
+                    Files.copy(file, target);
+                }
+                copyThumbnail(file, target);
+                storedHashes.put(hash, stored);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to copy artifact " + file + ": " + e.getMessage());
+            return output.toAbsolutePath().relativize(file).toString().replace('\\', '/');
+        }
+        copiedFiles.put(file, stored);
+        return stored;
+    }
+
+    /**
+     * Copy an artifact's thumbnail next to its merged copy, if the shard has one
+     * @param file Artifact file referenced by a shard
+     * @param target Merged copy
+     * @throws IOException if the thumbnail can't be copied
+     */
+    private static void copyThumbnail(Path file, Path target) throws IOException {
+        Path thumbnail = ArtifactStore.thumbnailPath(file);
+        Path targetThumbnail = ArtifactStore.thumbnailPath(target);
+        if (thumbnail != null && targetThumbnail != null && Files.isRegularFile(thumbnail)
+                && !Files.exists(targetThumbnail)) {
+            Files.createDirectories(targetThumbnail.getParent());
+            Files.copy(thumbnail, targetThumbnail);
+        }
+    }
+}
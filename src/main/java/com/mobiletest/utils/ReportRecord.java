@@ -0,0 +1,65 @@
+package com.mobiletest.utils;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * ReportRecord is the JSON-lines form of a {@link TestEvent}: one line of the run's event log.
+ * Screenshot bytes are not logged; the stored file arrives as a later ATTACHMENT record whose
+ * path is relative to the log's directory, so a log and its artifacts can be moved together.
+ * Fields that an event type doesn't use stay null and are left out of the line.
+ */
+final class ReportRecord {
+
+    String type;
+    long test;
+    long time;
+    String name;
+    String text;
+    String status;
+    String error;
+    String[][] table;
+    Long duration;
+    String device;
+
+    /**
+     * Convert a bus event to its log record
+     * @param event Event
+     * @return Record
+     */
+    static ReportRecord of(TestEvent event) {
+        ReportRecord record = new ReportRecord();
+        record.type = event.getType().name();
+        record.test = event.getTestId();
+        record.time = event.getTimestamp();
+        record.name = event.getName();
+        record.text = event.getText();
+        record.table = event.getTable();
+        record.device = event.getDevice();
+        if (event.getStatus() != null) {
+            record.status = event.getStatus().name();
+        }
+        if (event.getThrowable() != null) {
+            StringWriter trace = new StringWriter();
+            event.getThrowable().printStackTrace(new PrintWriter(trace));
+            record.error = trace.toString();
+        }
+        if (event.getType() == TestEvent.Type.TEST_FINISHED) {
+            record.duration = event.getDurationMillis();
+        }
+        return record;
+    }
+
+    /**
+     * Create the first record of a shard, naming the worker that wrote it
+     * @param worker Worker name, e.g. pid@host
+     * @return Record
+     */
+    static ReportRecord runStarted(String worker) {
+        ReportRecord record = new ReportRecord();
+        record.type = TestEvent.Type.RUN_STARTED.name();
+        record.time = System.currentTimeMillis();
+        record.name = worker;
+        return record;
+    }
+}
@@ -0,0 +1,457 @@
+package com.mobiletest.utils;
+
+import com.aventstack.extentreports.Status;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.mobiletest.config.AppiumConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * ReportRenderer turns the records of a run's event log into a paged HTML report as they arrive.
+ * Only tests still running are held in memory; a finished test is appended to the current page
+ * file and forgotten, a full page is closed and never rewritten, and the small index page is
+ * replaced atomically whenever a page opens or closes. Screenshots show as lazily loaded
+ * thumbnails linking the full image. The report is readable at every point of the run, so a killed run still leaves one.
+ */
+public class ReportRenderer {
+
+    static final String INDEX = "index.html";
+    private static final String STYLE = "<style>"
+            + "body{font-family:sans-serif;background:#1e1f26;color:#ddd;margin:24px}"
+            + "a{color:#6cb2eb}table{border-collapse:collapse;margin:6px 0}"
+            + "td,th{border:1px solid #444;padding:3px 8px;text-align:left}"
+            + ".test{border-left:4px solid #888;background:#272933;margin:10px 0;padding:8px 12px}"
+            + ".PASS{border-color:#3c9}.FAIL{border-color:#e55}.SKIP{border-color:#fb3}.WARNING{border-color:#f80}"
+            + ".log{margin:2px 0}.meta{color:#999;font-size:90%}pre{white-space:pre-wrap;color:#e99}"
+            + "img{max-width:320px;border:1px solid #444}"
+            + "</style>";
+
+    /**
+     * A test that started but hasn't been written yet
+     */
+    private static final class OpenTest {
+        final String name;
+        final String description;
+        final long started;
+        final String device;
+        final StringBuilder body = new StringBuilder();
+        Status status = Status.INFO;
+        int pendingScreenshots;
+        boolean finished;
+        long duration = -1;
+
+        OpenTest(String name, String description, long started, String device) {
+            this.name = name;
+            this.description = description;
+            this.started = started;
+            this.device = device;
+        }
+    }
+
+    private final Path directory;
+    private final int pageSize;
+    private final Map<Long, OpenTest> openTests = new HashMap<>();
+    private final Map<String, String> systemInfo = new LinkedHashMap<>();
+    private final Map<Status, Integer> totals = new EnumMap<>(Status.class);
+    // Per device: {tests, passed, failed, skipped, test time in ms}
+    private final Map<String, long[]> devices = new TreeMap<>();
+    // Per page: {tests, failed}; one small entry per page, not per test
+    private final List<int[]> pages = new ArrayList<>();
+    private Path source;
+    private Writer page;
+    private long firstTime;
+    private long lastTime;
+    private boolean finished;
+
+    /**
+     * Constructor
+     * @param directory Directory for index.html and the page files
+     * @param pageSize Tests per page
+     */
+    public ReportRenderer(Path directory, int pageSize) {
+        this.directory = directory;
+        this.pageSize = Math.max(1, pageSize);
+        this.source = directory;
+        systemInfo.put("OS", System.getProperty("os.name"));
+        systemInfo.put("Java Version", System.getProperty("java.version"));
+        systemInfo.put("Framework", "Appium + TestNG");
+        systemInfo.put("Platform", "Android");
+    }
+
+    /**
+     * Render an event log after the fact, e.g. from a run that was killed
+     * @param args Path to events.jsonl, and optionally the output directory (default: next to the log)
+     * @throws IOException if the log can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReportRenderer <events.jsonl> [output directory]");
+            return;
+        }
+        Path log = Paths.get(args[0]);
+        Path output = args.length > 1 ? Paths.get(args[1]) : log.toAbsolutePath().getParent();
+        ReportRenderer renderer = new ReportRenderer(output, configuredPageSize());
+        renderer.render(log);
+        System.out.println("Report written to " + output.resolve(INDEX));
+    }
+
+    /**
+     * Get the number of tests per page from configuration
+     * @return Tests per page
+     */
+    static int configuredPageSize() {
+        return Integer.parseInt(Objects.toString(AppiumConfig.getProperty("report.page.size"), "100"));
+    }
+
+    /**
+     * Render a whole event log, one line at a time
+     * @param log Path to events.jsonl
+     * @throws IOException if the log can't be read
+     */
+    public void render(Path log) throws IOException {
+        source = log.toAbsolutePath().getParent();
+        Gson gson = new Gson();
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    accept(gson.fromJson(line, ReportRecord.class));
+                } catch (JsonParseException e) {
+                    // A run killed mid-write leaves a truncated last line
+                    System.err.println("Skipping unreadable event log line: " + e.getMessage());
+                }
+            }
+        }
+        finish();
+    }
+
+    /**
+     * Take the next record of the run
+     * @param record Event record
+     */
+    void accept(ReportRecord record) {
+        if (finished) {
+            return;
+        }
+        // Shards of a split run overlap in time, so the run spans the earliest to the latest record
+        firstTime = firstTime == 0 ? record.time : Math.min(firstTime, record.time);
+        lastTime = Math.max(lastTime, record.time);
+        TestEvent.Type type = TestEvent.Type.valueOf(record.type);
+        switch (type) {
+            case RUN_STARTED:
+                systemInfo.put("Worker " + record.name, "started " + formatTime(record.time));
+                return;
+            case SYSTEM_INFO:
+                systemInfo.put(record.name, record.text);
+                return;
+            case RUN_FINISHED:
+                finish();
+                return;
+            case TEST_STARTED:
+                openTests.put(record.test, new OpenTest(record.name, record.text, record.time, record.device));
+                return;
+            default:
+                break;
+        }
+        OpenTest test = openTests.get(record.test);
+        if (test == null) {
+            return;
+        }
+        switch (type) {
+            case LOG:
+                Status status = Status.valueOf(record.status);
+                test.status = status.compareTo(test.status) > 0 ? status : test.status;
+                test.body.append("<div class=\"log\"><b>").append(status.name()).append("</b> ");
+                if (record.error != null) {
+                    test.body.append("<pre>").append(escape(record.error)).append("</pre>");
+                } else {
+                    test.body.append(escape(record.text));
+                }
+                test.body.append("</div>");
+                break;
+            case TABLE:
+                appendTable(test.body, record.table);
+                break;
+            case SCREENSHOT:
+                test.pendingScreenshots++;
+                break;
+            case ATTACHMENT:
+                test.pendingScreenshots--;
+                if (record.name != null) {
+                    appendImage(test.body, record.name);
+                }
+                break;
+            case TEST_FINISHED:
+                test.finished = true;
+                test.duration = record.duration != null ? record.duration : -1;
+                break;
+            default:
+                break;
+        }
+        if (test.finished && test.pendingScreenshots <= 0) {
+            openTests.remove(record.test);
+            write(test);
+        }
+    }
+
+    /**
+     * Write the tests still open, close the last page and write the final index
+     */
+    void finish() {
+        if (finished) {
+            return;
+        }
+        for (OpenTest test : openTests.values()) {
+            test.body.append("<div class=\"meta\">Test did not finish before the run ended</div>");
+            write(test);
+        }
+        openTests.clear();
+        finished = true;
+        closePage(true);
+        writeIndex();
+    }
+
+    /**
+     * Append a finished test to the current page, opening and closing pages as needed
+     * @param test Test to write
+     */
+    private void write(OpenTest test) {
+        try {
+            if (page == null) {
+                openPage();
+            }
+            StringBuilder html = new StringBuilder();
+            html.append("<div class=\"test ").append(test.status.name()).append("\"><h3>")
+                    .append(escape(test.name)).append(" &ndash; ").append(test.status.name()).append("</h3>");
+            if (test.description != null && !test.description.isEmpty()) {
+                html.append("<div>").append(escape(test.description)).append("</div>");
+            }
+            html.append("<div class=\"meta\">Started ").append(formatTime(test.started));
+            if (test.device != null) {
+                html.append(" on ").append(escape(test.device));
+            }
+            if (test.duration >= 0) {
+                html.append(", took ").append(test.duration).append(" ms");
+            }
+            html.append("</div>").append(test.body).append("</div>\n");
+            page.write(html.toString());
+            page.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to write report page: " + e.getMessage());
+            return;
+        }
+        totals.merge(test.status, 1, Integer::sum);
+        long[] device = devices.computeIfAbsent(test.device != null ? test.device : "(no device)", k -> new long[5]);
+        device[0]++;
+        device[1] += test.status == Status.PASS ? 1 : 0;
+        device[2] += test.status == Status.FAIL ? 1 : 0;
+        device[3] += test.status == Status.SKIP ? 1 : 0;
+        device[4] += Math.max(0, test.duration);
+        int[] current = pages.get(pages.size() - 1);
+        current[0]++;
+        if (test.status == Status.FAIL) {
+            current[1]++;
+        }
+        if (current[0] >= pageSize) {
+            closePage(false);
+        }
+    }
+
+    /**
+     * Start the next page file and list it in the index
+     * @throws IOException if the file can't be created
+     */
+    private void openPage() throws IOException {
+        Files.createDirectories(directory);
+        pages.add(new int[2]);
+        int number = pages.size();
+        page = Files.newBufferedWriter(directory.resolve(pageFile(number)), StandardCharsets.UTF_8);
+        page.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Page " + number
+                + " - Mobile Test Automation Report</title>" + STYLE + "</head><body>\n");
+        page.write("<p><a href=\"" + INDEX + "\">Summary</a></p><h2>Page " + number + "</h2>\n");
+        page.flush();
+        writeIndex();
+    }
+
+    /**
+     * Finish the current page file with navigation links
+     * @param last true if no page follows
+     */
+    private void closePage(boolean last) {
+        if (page == null) {
+            return;
+        }
+        int number = pages.size();
+        try {
+            page.write("<p>");
+            if (number > 1) {
+                page.write("<a href=\"" + pageFile(number - 1) + "\">&laquo; Previous</a> ");
+            }
+            page.write("<a href=\"" + INDEX + "\">Summary</a>");
+            if (!last) {
+                page.write(" <a href=\"" + pageFile(number + 1) + "\">Next &raquo;</a>");
+            }
+            page.write("</p></body></html>\n");
+            page.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close report page: " + e.getMessage());
+        }
+        page = null;
+        if (!last) {
+            writeIndex();
+        }
+    }
+
+    /**
+     * Replace the index page: totals, system information and the list of pages
+     */
+    private void writeIndex() {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Mobile Test Automation Report</title>")
+                .append(STYLE).append("</head><body><h1>Appium Test Results</h1>");
+        if (!finished) {
+            html.append("<p class=\"meta\">Run in progress</p>");
+        }
+        if (firstTime > 0) {
+            html.append("<p>").append(formatTime(firstTime)).append(" &ndash; ").append(formatTime(lastTime))
+                    .append(" (").append((lastTime - firstTime) / 1000).append(" s)</p>");
+        }
+        List<String[]> summary = new ArrayList<>();
+        summary.add(new String[]{"Status", "Tests"});
+        totals.forEach((status, count) -> summary.add(new String[]{status.name(), String.valueOf(count)}));
+        appendTable(html, summary.toArray(new String[0][]));
+
+        if (!devices.isEmpty()) {
+            List<String[]> perDevice = new ArrayList<>();
+            perDevice.add(new String[]{"Device", "Tests", "Passed", "Failed", "Skipped", "Test time (s)"});
+            devices.forEach((device, counts) -> perDevice.add(new String[]{device, String.valueOf(counts[0]),
+                    String.valueOf(counts[1]), String.valueOf(counts[2]), String.valueOf(counts[3]),
+                    String.format("%.1f", counts[4] / 1000.0)}));
+            appendTable(html, perDevice.toArray(new String[0][]));
+        }
+
+        List<String[]> info = new ArrayList<>();
+        info.add(new String[]{"Name", "Value"});
+        systemInfo.forEach((name, value) -> info.add(new String[]{name, value}));
+        appendTable(html, info.toArray(new String[0][]));
+
+        html.append("<table><tr><th>Page</th><th>Tests</th><th>Failed</th></tr>");
+        for (int i = 0; i < pages.size(); i++) {
+            html.append("<tr><td><a href=\"").append(pageFile(i + 1)).append("\">Page ").append(i + 1)
+                    .append("</a></td><td>").append(pages.get(i)[0]).append("</td><td>").append(pages.get(i)[1])
+                    .append("</td></tr>");
+        }
+        html.append("</table></body></html>\n");
+        try {
+            Files.createDirectories(directory);
+            // Write beside and move over, so a reader or a crash never sees half an index
+            Path temporary = directory.resolve(INDEX + ".tmp");
+            Files.write(temporary, html.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, directory.resolve(INDEX), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to write report index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Append an HTML table; the first row is the header
+     * @param html Target
+     * @param rows Table rows including a header row
+     */
+    private static void appendTable(StringBuilder html, String[][] rows) {
+        if (rows == null || rows.length == 0) {
+            return;
+        }
+        html.append("<table>");
+        for (int r = 0; r < rows.length; r++) {
+            String cell = r == 0 ? "th" : "td";
+            html.append("<tr>");
+            for (String value : rows[r]) {
+                html.append('<').append(cell).append('>').append(escape(value)).append("</").append(cell).append('>');
+            }
+            html.append("</tr>");
+        }
+        html.append("</table>");
+    }
+
+    /**
+     * Append a lazily loaded thumbnail linking the full image; the full image stands in
+     * when there is no thumbnail
+     * @param html Target
+     * @param path Artifact path, relative to the directory of the log it came from
+     */
+    private void appendImage(StringBuilder html, String path) {
+        Path artifact = source.toAbsolutePath().resolve(path).normalize();
+        Path thumbnail = ArtifactStore.thumbnailPath(artifact);
+        String full = escape(relativePath(artifact));
+        String preview = thumbnail != null ? escape(relativePath(thumbnail)) : full;
+        html.append("<a href=\"").append(full).append("\"><img loading=\"lazy\" src=\"").append(preview)
+                .append("\" onerror=\"this.onerror=null;this.src='").append(full)
+                .append("'\" alt=\"screenshot\"></a>");
+    }
+
+    /**
+     * Make an artifact path usable from the report directory
+     * @param artifact Absolute artifact path
+     * @return Path relative to the report directory, with forward slashes
+     */
+    private String relativePath(Path artifact) {
+        try {
+            return directory.toAbsolutePath().normalize().relativize(artifact).toString().replace('\\', '/');
+        } catch (IllegalArgumentException e) {
+            return artifact.toString();
+        }
+    }
+
+    /**
+     * Get the file name of a page
+     * @param number Page number, starting at 1
+     * @return File name
+     */
+    private static String pageFile(int number) {
+        return String.format("page-%04d.html", number);
+    }
+
+    /**
+     * Format a timestamp for display
+     * @param millis Epoch milliseconds
+     * @return Formatted time
+     */
+    private static String formatTime(long millis) {
+        return new SimpleDateFormat("MMM dd, yyyy HH:mm:ss").format(new Date(millis));
+    }
+
+    /**
+     * Escape text for HTML
+     * @param text Raw text, may be null
+     * @return Escaped text
+     */
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -1,14 +1,12 @@
 package com.mobiletest.utils;
 
 import io.appium.java_client.android.AndroidDriver;
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 
-import java.io.File;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * ScreenshotUtils provides utility methods for capturing screenshots.
@@ -16,8 +14,6 @@ import java.util.Date;
  */
 public class ScreenshotUtils {
     
-    private static final String SCREENSHOT_PATH = "test-output/screenshots/";
-    
     /**
      * Capture screenshot and save to file
      * @param driver AndroidDriver instance
@@ -25,32 +21,29 @@ public class ScreenshotUtils {
      * @return Path to the saved screenshot
      */
     public static String captureScreenshot(AndroidDriver driver, String screenshotName) {
-        // Create timestamp for unique filename
-        String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
-        String fileName = screenshotName + "_" + timestamp + ".png";
-        String filePath = SCREENSHOT_PATH + fileName;
-        
-        // Ensure directory exists
-        File directory = new File(SCREENSHOT_PATH);
-        if (!directory.exists()) {
-            directory.mkdirs();
-        }
-        
         try {
-            // Capture screenshot
-            File sourceFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            File destinationFile = new File(filePath);
-            FileUtils.copyFile(sourceFile, destinationFile);
-            
-            System.out.println("Screenshot saved: " + filePath);
-            return filePath;
-            
-        } catch (IOException e) {
-            System.err.println("Failed to capture screenshot: " + e.getMessage());
+            return captureScreenshotAsync(driver, screenshotName).get().toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // The writer has already reported the failure
             return null;
         }
     }
     
+    /**
+     * Capture a screenshot now and store it in the background.
+     * Only the screenshot command runs on the calling thread; decoding and writing happen on a
+     * bounded writer pool, and the call blocks only while that pool's queue is full.
+     * @param driver AndroidDriver instance
+     * @param screenshotName Name for the screenshot, recorded in the store's index
+     * @return Completes with the path of the stored screenshot
+     */
+    public static CompletableFuture<Path> captureScreenshotAsync(AndroidDriver driver, String screenshotName) {
+        return ScreenshotWriter.submit(captureScreenshotAsBase64(driver), screenshotName);
+    }
+    
     /**
      * Capture screenshot and return as Base64 string
      * @param driver AndroidDriver instance
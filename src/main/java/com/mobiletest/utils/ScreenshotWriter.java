@@ -0,0 +1,112 @@
+package com.mobiletest.utils;
+
+import com.mobiletest.config.AppiumConfig;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ScreenshotWriter decodes and stores screenshots on background threads so the capturing
+ * thread only pays for the screenshot command itself. Work waits in a bounded queue; when the
+ * disk falls behind and the queue is full, capturing threads block until a slot frees up,
+ * which keeps memory bounded instead of piling up encoded screenshots. A screenshot that can't
+ * be queued within {@value #QUEUE_TIMEOUT_SECONDS} s is dropped and its future fails.
+ */
+final class ScreenshotWriter {
+
+    /**
+     * One screenshot waiting to be written
+     */
+    private static final class Task {
+        final String base64Png;
+        final String name;
+        final CompletableFuture<Path> stored = new CompletableFuture<>();
+
+        Task(String base64Png, String name) {
+            this.base64Png = base64Png;
+            this.name = name;
+        }
+    }
+
+    private static final long QUEUE_TIMEOUT_SECONDS = 30;
+    private static final BlockingQueue<Task> queue = new ArrayBlockingQueue<>(
+            Integer.parseInt(Objects.toString(AppiumConfig.getProperty("screenshot.queue.capacity"), "8")));
+
+    static {
+        int threads = Integer.parseInt(Objects.toString(AppiumConfig.getProperty("screenshot.writer.threads"), "1"));
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            Thread writer = new Thread(ScreenshotWriter::run, "screenshot-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ScreenshotWriter() {
+    }
+
+    /**
+     * Queue a screenshot for writing, waiting a bounded time while the queue is full
+     * @param base64Png Screenshot as returned by the driver
+     * @param name Name for the screenshot, recorded in the store's index
+     * @return Completes with the stored file, or exceptionally if it couldn't be queued or written
+     */
+    static CompletableFuture<Path> submit(String base64Png, String name) {
+        Task task = new Task(base64Png, name);
+        if (!queue.offer(task)) {
+            long start = System.nanoTime();
+            try {
+                if (!queue.offer(task, QUEUE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    System.err.println("Screenshot writer is stuck; dropped " + name + " after "
+                            + QUEUE_TIMEOUT_SECONDS + " s");
+                    task.stored.completeExceptionally(new TimeoutException(
+                            "Screenshot queue still full after " + QUEUE_TIMEOUT_SECONDS + " s"));
+                    return task.stored;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                task.stored.completeExceptionally(e);
+                return task.stored;
+            }
+            System.out.println("[WARN] Screenshot writer is behind; waited "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms to queue " + name);
+        }
+        return task.stored;
+    }
+
+    /**
+     * Writer loop: decode, hash and store each queued screenshot
+     */
+    private static void run() {
+        while (true) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                // The driver sends base64, possibly line-wrapped; the decoded buffer goes to the channel as is
+                ByteBuffer png = Base64.getMimeDecoder()
+                        .decode(ByteBuffer.wrap(task.base64Png.getBytes(StandardCharsets.US_ASCII)));
+                Path path = ArtifactStore.screenshots().store(png, "png", task.name);
+                System.out.println("Screenshot saved: " + task.name + " -> " + path);
+                task.stored.complete(path);
+            } catch (Throwable t) {
+                // Fail the future whatever went wrong, or the report would wait for it until the drain times out
+                System.err.println("Failed to capture screenshot: " + t);
+                task.stored.completeExceptionally(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.mobiletest.utils;
+
+import com.mobiletest.config.AppiumConfig;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ScrollUtils brings off-screen elements into view with as few round trips as possible.
+ * It first asks the UiAutomator2 server to do the whole search with one UiScrollable command,
+ * then steps with "mobile: scrollGesture" when no selector can be built for the locator or no
+ * container is marked scrollable, and only swipes with W3C actions if the server lacks the gesture.
+ * UiScrollable can only search forward, so UP and LEFT searches always step with gestures.
+ */
+public class ScrollUtils {
+
+    /**
+     * Which way to move through the content: DOWN reveals what is below the visible area
+     */
+    public enum Direction {
+        UP, DOWN, LEFT, RIGHT;
+
+        /**
+         * Check if this direction scrolls a vertical list
+         * @return true for UP and DOWN
+         */
+        public boolean isVertical() {
+            return this == UP || this == DOWN;
+        }
+
+        /**
+         * Check if this direction moves forward through the content, the only way UiScrollable searches
+         * @return true for DOWN and RIGHT
+         */
+        public boolean isForward() {
+            return this == DOWN || this == RIGHT;
+        }
+    }
+
+    private static final By SCROLLABLE = AppiumBy.androidUIAutomator("new UiSelector().scrollable(true)");
+
+    private final AndroidDriver driver;
+    private final Gestures gestures;
+    private final int defaultMaxSwipes;
+
+    /**
+     * Constructor reads the default swipe bound from configuration
+     * @param driver AndroidDriver instance
+     */
+    public ScrollUtils(AndroidDriver driver) {
+        this.driver = driver;
+        this.gestures = new Gestures(driver);
+        this.defaultMaxSwipes = Integer.parseInt(Objects.toString(AppiumConfig.getProperty("scroll.max.swipes"), "10"));
+    }
+
+    /**
+     * Scroll down until an element with the given resource id is visible
+     * @param resourceId Resource id, with or without package prefix
+     * @return The element once in view
+     * @throws NoSuchElementException if it is not found within the swipe bound
+     */
+    public WebElement scrollToId(String resourceId) {
+        return scrollToId(resourceId, Direction.DOWN, defaultMaxSwipes);
+    }
+
+    /**
+     * Scroll until an element with the given resource id is visible
+     * @param resourceId Resource id, with or without package prefix
+     * @param direction Scroll direction
+     * @param maxSwipes Maximum number of swipes
+     * @return The element once in view
+     * @throws NoSuchElementException if it is not found within the swipe bound
+     */
+    public WebElement scrollToId(String resourceId, Direction direction, int maxSwipes) {
+        return scrollTo(By.id(resourceId), idSelector(resourceId), direction, maxSwipes);
+    }
+
+    /**
+     * Scroll down until an element with the given text is visible
+     * @param text Exact text
+     * @return The element once in view
+     * @throws NoSuchElementException if it is not found within the swipe bound
+     */
+    public WebElement scrollToText(String text) {
+        return scrollToText(text, Direction.DOWN, defaultMaxSwipes);
+    }
+
+    /**
+     * Scroll until an element with the given text is visible
+     * @param text Exact text
+     * @param direction Scroll direction
+     * @param maxSwipes Maximum number of swipes
+     * @return The element once in view
+     * @throws NoSuchElementException if it is not found within the swipe bound
+     */
+    public WebElement scrollToText(String text, Direction direction, int maxSwipes) {
+        String selector = "new UiSelector().text(\"" + escape(text) + "\")";
+        return scrollTo(AppiumBy.androidUIAutomator(selector), selector, direction, maxSwipes);
+    }
+
+    /**
+     * Scroll down until an element matching the locator is visible
+     * @param locator Element locator
+     * @return The element once in view
+     * @throws NoSuchElementException if it is not found within the swipe bound
+     */
+    public WebElement scrollTo(By locator) {
+        return scrollTo(locator, Direction.DOWN, defaultMaxSwipes);
+    }
+
+    /**
+     * Scroll until an element matching the locator is visible.
+     * Forward searches for id and accessibility id locators use a single server-side UiScrollable
+     * search; other locators, and searches UP or LEFT, are checked after each scroll step.
+     * @param locator Element locator
+     * @param direction Scroll direction
+     * @param maxSwipes Maximum number of swipes
+     * @return The element once in view
+     * @throws NoSuchElementException if it is not found within the swipe bound
+     */
+    public WebElement scrollTo(By locator, Direction direction, int maxSwipes) {
+        return scrollTo(locator, toUiSelector(locator), direction, maxSwipes);
+    }
+
+    /**
+     * Scroll one step with the server-side scroll gesture, or a swipe if the server lacks it
+     * @param area Area to scroll, usually the bounds of the scrollable container
+     * @param direction Scroll direction
+     * @return true if the content can scroll further
+     */
+    public boolean scroll(Rectangle area, Direction direction) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("left", area.getX());
+        args.put("top", area.getY());
+        args.put("width", area.getWidth());
+        args.put("height", area.getHeight());
+        args.put("direction", direction.name().toLowerCase());
+        args.put("percent", 0.75);
+        try {
+            return Boolean.TRUE.equals(driver.executeScript("mobile: scrollGesture", args));
+        } catch (UnsupportedCommandException e) {
+            gestures.swipe(area, direction);
+            return true;
+        } catch (WebDriverException e) {
+            if (!String.valueOf(e.getMessage()).contains("Unknown mobile command")) {
+                throw e;
+            }
+            gestures.swipe(area, direction);
+            return true;
+        }
+    }
+
+    /**
+     * Get the area that scrolling acts on: the first scrollable container, else the whole window
+     * @return Scroll area
+     */
+    public Rectangle scrollArea() {
+        List<WebElement> containers = findNow(SCROLLABLE);
+        if (!containers.isEmpty()) {
+            return containers.get(0).getRect();
+        }
+        Dimension size = driver.manage().window().getSize();
+        return new Rectangle(new Point(0, 0), size);
+    }
+
+    /**
+     * Search with one UiScrollable command when a selector exists and the direction is forward,
+     * else step with gestures in the given direction
+     * @param locator Element locator, used for the per-step checks
+     * @param uiSelector Equivalent UiSelector, or null
+     * @param direction Scroll direction
+     * @param maxSwipes Maximum number of swipes
+     * @return The element once in view
+     */
+    private WebElement scrollTo(By locator, String uiSelector, Direction direction, int maxSwipes) {
+        List<WebElement> visible = findNow(locator);
+        if (!visible.isEmpty()) {
+            return visible.get(0);
+        }
+        if (uiSelector != null && direction.isForward()) {
+            List<WebElement> found = findNow(AppiumBy.androidUIAutomator(uiScrollable(uiSelector, direction, maxSwipes)));
+            if (!found.isEmpty()) {
+                return found.get(0);
+            }
+            // UiScrollable needs a container flagged scrollable; without one, fall through to gestures
+            if (!findNow(SCROLLABLE).isEmpty()) {
+                throw notFound(locator, maxSwipes);
+            }
+        }
+        Rectangle area = scrollArea();
+        for (int swipe = 0; swipe < maxSwipes; swipe++) {
+            boolean canScrollMore = scroll(area, direction);
+            visible = findNow(locator);
+            if (!visible.isEmpty()) {
+                return visible.get(0);
+            }
+            if (!canScrollMore) {
+                break;
+            }
+        }
+        throw notFound(locator, maxSwipes);
+    }
+
+    /**
+     * Look elements up once, without the implicit wait
+     * @param locator Element locator
+     * @return Matching elements, possibly empty
+     */
+    private List<WebElement> findNow(By locator) {
+        try (ImplicitWaitScope ignored = ImplicitWaitScope.disable(driver)) {
+            return driver.findElements(locator);
+        }
+    }
+
+    /**
+     * Build the UiScrollable command that searches for a selector on the server.
+     * scrollIntoView only moves forward, so callers pass DOWN or RIGHT.
+     * @param uiSelector Target UiSelector
+     * @param direction Forward scroll direction, selects vertical or horizontal list mode
+     * @param maxSwipes Maximum number of swipes
+     * @return UiAutomator command
+     */
+    private static String uiScrollable(String uiSelector, Direction direction, int maxSwipes) {
+        return "new UiScrollable(new UiSelector().scrollable(true).instance(0))"
+                + (direction.isVertical() ? ".setAsVerticalList()" : ".setAsHorizontalList()")
+                + ".setMaxSearchSwipes(" + maxSwipes + ")"
+                + ".scrollIntoView(" + uiSelector + ")";
+    }
+
+    /**
+     * Convert a locator to an equivalent UiSelector where one exists
+     * @param locator Element locator
+     * @return UiSelector expression, or null for locators such as XPath
+     */
+    private static String toUiSelector(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case "id":
+                return idSelector(value);
+            case "accessibility id":
+                return "new UiSelector().description(\"" + escape(value) + "\")";
+            case "-android uiautomator":
+                return value.startsWith("new UiSelector()") ? value : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Build a UiSelector for a resource id; bare ids match any package
+     * @param resourceId Resource id, with or without package prefix
+     * @return UiSelector expression
+     */
+    private static String idSelector(String resourceId) {
+        if (resourceId.contains(":id/")) {
+            return "new UiSelector().resourceId(\"" + escape(resourceId) + "\")";
+        }
+        return "new UiSelector().resourceIdMatches(\".*:id/" + escape(resourceId) + "\")";
+    }
+
+    /**
+     * Escape a value for use inside a UiSelector string literal
+     * @param value Raw value
+     * @return Escaped value
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Build the exception for an element that never came into view
+     * @param locator Element locator
+     * @param maxSwipes Swipe bound that was used
+     * @return Exception to throw
+     */
+    private static NoSuchElementException notFound(By locator, int maxSwipes) {
+        return new NoSuchElementException("Element " + locator + " not found after scrolling " + maxSwipes + " times");
+    }
+}
@@ -0,0 +1,117 @@
+package com.mobiletest.utils;
+
+import com.aventstack.extentreports.Status;
+
+/**
+ * TestEvent is one immutable entry on the {@link TestEventBus}: a test starting or finishing,
+ * a log line, a table, a screenshot being stored, a stored file to attach, a line of system
+ * information, or the start or end of a run. Producers create events through the bus; consumers
+ * read whichever fields their event type uses.
+ */
+public final class TestEvent {
+
+    /**
+     * What happened
+     */
+    public enum Type {
+        RUN_STARTED, TEST_STARTED, LOG, TABLE, SCREENSHOT, ATTACHMENT, TEST_FINISHED, SYSTEM_INFO, RUN_FINISHED
+    }
+
+    private final Type type;
+    private final long testId;
+    private final long timestamp;
+    private final String name;
+    private final String text;
+    private final Status status;
+    private final Throwable throwable;
+    private final String[][] table;
+    private final long durationMillis;
+    private final String device;
+
+    /**
+     * Constructor
+     * @param type Event type
+     * @param testId Report entry the event belongs to
+     * @param name Test name, history key, screenshot name, attachment path or info name, depending on type
+     * @param text Description, log message or info value
+     * @param status Log status
+     * @param throwable Logged exception
+     * @param table Table rows including a header row
+     * @param durationMillis Test duration
+     */
+    TestEvent(Type type, long testId, String name, String text, Status status, Throwable throwable,
+              String[][] table, long durationMillis) {
+        this(type, testId, name, text, status, throwable, table, durationMillis, null);
+    }
+
+    /**
+     * Constructor
+     * @param type Event type
+     * @param testId Report entry the event belongs to
+     * @param name Test name, history key, screenshot name, attachment path or info name, depending on type
+     * @param text Description, log message or info value
+     * @param status Log status
+     * @param throwable Logged exception
+     * @param table Table rows including a header row
+     * @param durationMillis Test duration
+     * @param device Device the test runs on, or null
+     */
+    TestEvent(Type type, long testId, String name, String text, Status status, Throwable throwable,
+              String[][] table, long durationMillis, String device) {
+        this.type = type;
+        this.testId = testId;
+        this.timestamp = System.currentTimeMillis();
+        this.name = name;
+        this.text = text;
+        this.status = status;
+        this.throwable = throwable;
+        this.table = table;
+        this.durationMillis = durationMillis;
+        this.device = device;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTestId() {
+        return testId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    public String[][] getTable() {
+        return table;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public String getDevice() {
+        return device;
+    }
+
+    @Override
+    public String toString() {
+        return type + " #" + testId + (name != null ? " " + name : "");
+    }
+}
@@ -0,0 +1,348 @@
+package com.mobiletest.utils;
+
+import com.aventstack.extentreports.Status;
+import com.mobiletest.config.AppiumConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * TestEventBus carries test lifecycle events from the test threads to background consumers.
+ * Every event is published exactly once; each consumer has its own lock-free ring and daemon
+ * thread, so a test thread only pays one enqueue per interested consumer while reporting,
+ * artifact storage and metrics run behind it. Events of one test thread reach every consumer
+ * in the order they were published.
+ * The built-in consumers append the event log and its HTML report, optionally build the Extent
+ * report, create screenshot thumbnails and record durations.
+ * Call {@link #drain()} before reading anything the consumers produce.
+ */
+public class TestEventBus {
+
+    private static final int IDLE_SPINS = 100;
+    private static final long DRAIN_PARK_NANOS = 200_000;
+    private static final long FULL_PARK_NANOS = 50_000;
+    private static final long FULL_TIMEOUT_NANOS = 5_000_000_000L;
+    private static final long DRAIN_TIMEOUT_MILLIS = 60_000;
+
+    private static final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private static final AtomicLong testIds = new AtomicLong();
+    private static final AtomicInteger pendingAttachments = new AtomicInteger();
+    private static final ThreadLocal<Long> currentTest = new ThreadLocal<>();
+    private static final int ringCapacity =
+            Integer.parseInt(Objects.toString(AppiumConfig.getProperty("events.ring.capacity"), "4096"));
+
+    static {
+        try {
+            subscribe("report-log", EnumSet.allOf(TestEvent.Type.class),
+                    EventLogWriter.create(ReportRenderer.configuredPageSize()));
+        } catch (IOException e) {
+            System.err.println("Failed to create event log, no HTML report will be written: " + e.getMessage());
+        }
+        if (Boolean.parseBoolean(AppiumConfig.getProperty("report.extent.enabled"))) {
+            subscribe("extent", ReportEventHandler.TYPES, new ReportEventHandler());
+        }
+        subscribe("artifacts", EnumSet.of(TestEvent.Type.ATTACHMENT), new ArtifactEventHandler());
+        subscribe("metrics", EnumSet.of(TestEvent.Type.TEST_FINISHED), new MetricsEventHandler());
+    }
+
+    /**
+     * One consumer: its ring, its thread and how far it got
+     */
+    private static final class Subscription {
+        final String name;
+        final Set<TestEvent.Type> types;
+        final Consumer<TestEvent> handler;
+        final EventRing<TestEvent> ring = new EventRing<>(ringCapacity);
+        final AtomicLong dropped = new AtomicLong();
+        volatile Thread thread;
+        // Set while the consumer is about to park or parked, so publishers know to wake it
+        volatile boolean waiting;
+        // Events fully handled; written only by the consumer thread
+        volatile long processed;
+        // Progress at which a full ring last timed out; further events drop at once until it moves
+        volatile long stalledAt = -1;
+
+        Subscription(String name, Set<TestEvent.Type> types, Consumer<TestEvent> handler) {
+            this.name = name;
+            this.types = EnumSet.copyOf(types);
+            this.handler = handler;
+        }
+
+        void run() {
+            int spins = 0;
+            while (true) {
+                TestEvent event = ring.poll();
+                if (event == null) {
+                    if (spins++ < IDLE_SPINS) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    // Announce the park, then look once more so an event offered in between isn't missed
+                    waiting = true;
+                    event = ring.poll();
+                    if (event == null) {
+                        LockSupport.park(this);
+                        waiting = false;
+                        continue;
+                    }
+                    waiting = false;
+                }
+                spins = 0;
+                try {
+                    handler.accept(event);
+                } catch (Throwable t) {
+                    // Keep draining: a dead consumer would leave its ring full and block every test thread
+                    System.err.println("Event consumer '" + name + "' failed on " + event + ": " + t);
+                }
+                processed++;
+            }
+        }
+
+        void wake() {
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        boolean isIdle() {
+            return processed == ring.offered();
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TestEventBus() {
+    }
+
+    /**
+     * Add a consumer with its own ring and background thread
+     * @param name Consumer name, used for the thread name and error messages
+     * @param types Event types the consumer receives
+     * @param handler Called on the consumer thread for each event, in publish order
+     */
+    public static void subscribe(String name, Set<TestEvent.Type> types, Consumer<TestEvent> handler) {
+        Subscription subscription = new Subscription(name, types, handler);
+        Thread thread = new Thread(subscription::run, "test-events-" + name);
+        thread.setDaemon(true);
+        subscription.thread = thread;
+        thread.start();
+        subscriptions.add(subscription);
+    }
+
+    /**
+     * Open a report entry for the test about to run on this thread
+     * @param testName Test name
+     * @param description Test description
+     */
+    public static void testStarted(String testName, String description) {
+        if (isTestOpen()) {
+            // The previous test on this thread never reached its teardown
+            testFinished(null, 0);
+        }
+        long testId = testIds.incrementAndGet();
+        currentTest.set(testId);
+        publish(new TestEvent(TestEvent.Type.TEST_STARTED, testId, testName, description, null, null, null, 0,
+                AppiumConfig.getLeasedDevice()));
+    }
+
+    /**
+     * Check if a report entry is open on this thread
+     * @return true between testStarted and testFinished
+     */
+    public static boolean isTestOpen() {
+        return currentTest.get() != null;
+    }
+
+    /**
+     * Log a message to the open test; ignored if none is open
+     * @param status Log status
+     * @param message Message
+     */
+    public static void log(Status status, String message) {
+        Long testId = currentTest.get();
+        if (testId != null) {
+            publish(new TestEvent(TestEvent.Type.LOG, testId, null, message, status, null, null, 0));
+        }
+    }
+
+    /**
+     * Log an exception to the open test; ignored if none is open
+     * @param status Log status
+     * @param throwable Exception
+     */
+    public static void log(Status status, Throwable throwable) {
+        Long testId = currentTest.get();
+        if (testId != null) {
+            publish(new TestEvent(TestEvent.Type.LOG, testId, null, null, status, throwable, null, 0));
+        }
+    }
+
+    /**
+     * Add a table to the open test; ignored if none is open
+     * @param rows Table rows including a header row
+     */
+    public static void table(String[][] rows) {
+        Long testId = currentTest.get();
+        if (testId != null) {
+            publish(new TestEvent(TestEvent.Type.TABLE, testId, null, null, null, null, rows, 0));
+        }
+    }
+
+    /**
+     * Attach a screenshot to the open test once it has been stored; ignored if none is open
+     * @param screenshotName Name of the screenshot
+     * @param stored Completes with the stored file, e.g. from ScreenshotUtils.captureScreenshotAsync
+     */
+    public static void screenshot(String screenshotName, CompletableFuture<Path> stored) {
+        Long testId = currentTest.get();
+        if (testId == null) {
+            return;
+        }
+        // Consumers hold the test open until the matching attachment arrives
+        publish(new TestEvent(TestEvent.Type.SCREENSHOT, testId, screenshotName, null, null, null, null, 0));
+        pendingAttachments.incrementAndGet();
+        stored.whenComplete((path, error) -> {
+            try {
+                attach(testId, path != null ? path.toString() : null);
+            } finally {
+                pendingAttachments.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Close the open test on this thread
+     * @param historyKey Duration history key, or null if the duration shouldn't be recorded
+     * @param durationMillis Test duration in milliseconds
+     */
+    public static void testFinished(String historyKey, long durationMillis) {
+        Long testId = currentTest.get();
+        if (testId != null) {
+            currentTest.remove();
+            publish(new TestEvent(TestEvent.Type.TEST_FINISHED, testId, historyKey, null, null, null, null,
+                    durationMillis));
+        }
+    }
+
+    /**
+     * Add a standalone report entry holding one table, e.g. a suite summary
+     * @param name Entry name
+     * @param description Entry description
+     * @param rows Table rows including a header row
+     */
+    public static void report(String name, String description, String[][] rows) {
+        long testId = testIds.incrementAndGet();
+        publish(new TestEvent(TestEvent.Type.TEST_STARTED, testId, name, description, null, null, null, 0));
+        publish(new TestEvent(TestEvent.Type.TABLE, testId, null, null, null, null, rows, 0));
+        publish(new TestEvent(TestEvent.Type.TEST_FINISHED, testId, null, null, null, null, null, 0));
+    }
+
+    /**
+     * Add a line of system information to the report
+     * @param name Name, e.g. a device
+     * @param value Value
+     */
+    public static void systemInfo(String name, String value) {
+        publish(new TestEvent(TestEvent.Type.SYSTEM_INFO, 0, name, value, null, null, null, 0));
+    }
+
+    /**
+     * Mark the end of the run so consumers can finish their output, and wait until they have
+     */
+    public static void runFinished() {
+        // Let screenshots still being stored reach the report first
+        drain();
+        publish(new TestEvent(TestEvent.Type.RUN_FINISHED, 0, null, null, null, null, null, 0));
+        drain();
+    }
+
+    /**
+     * Attach a stored file to a test once a screenshot is written
+     * @param testId Report entry
+     * @param path Stored file, or null if storing failed
+     */
+    private static void attach(long testId, String path) {
+        publish(new TestEvent(TestEvent.Type.ATTACHMENT, testId, path, null, null, null, null, 0));
+    }
+
+    /**
+     * Wait until every consumer has handled every event published so far, including
+     * attachments of screenshots still being written
+     */
+    public static void drain() {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        long previousTotal = -1;
+        while (true) {
+            boolean idle = pendingAttachments.get() == 0;
+            long total = 0;
+            for (Subscription subscription : subscriptions) {
+                idle &= subscription.isIdle();
+                total += subscription.ring.offered();
+            }
+            // A second idle pass with no new events rules out one consumer feeding another in between
+            if (idle && total == previousTotal) {
+                return;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                System.err.println("Test events still pending after " + DRAIN_TIMEOUT_MILLIS + " ms; continuing");
+                return;
+            }
+            previousTotal = idle ? total : -1;
+            LockSupport.parkNanos(DRAIN_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Enqueue an event for every interested consumer, waiting while a ring is full
+     * @param event Event
+     */
+    private static void publish(TestEvent event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.types.contains(event.getType())) {
+                offer(subscription, event);
+                subscription.wake();
+            }
+        }
+    }
+
+    /**
+     * Enqueue an event for one consumer. While its ring is full, wait as long as the consumer keeps
+     * making progress; once it has made none for the timeout, drop the event rather than hang the
+     * test thread, and drop further events at once until the consumer moves again.
+     * @param subscription Consumer
+     * @param event Event
+     */
+    private static void offer(Subscription subscription, TestEvent event) {
+        if (subscription.ring.offer(event)) {
+            return;
+        }
+        subscription.wake();
+        long progress = subscription.processed;
+        long deadline = System.nanoTime() + FULL_TIMEOUT_NANOS;
+        while (!subscription.ring.offer(event)) {
+            long processed = subscription.processed;
+            if (processed != progress) {
+                progress = processed;
+                deadline = System.nanoTime() + FULL_TIMEOUT_NANOS;
+            } else if (subscription.stalledAt == progress || System.nanoTime() - deadline > 0) {
+                subscription.stalledAt = progress;
+                long dropped = subscription.dropped.incrementAndGet();
+                System.err.println("Event consumer '" + subscription.name + "' is stuck with a full ring; dropped "
+                        + event + " (" + dropped + " dropped so far)");
+                return;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.mobiletest.utils;
+
+import com.mobiletest.config.AppiumConfig;
+import io.appium.java_client.Setting;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * UiIdleDetector waits until the screen has settled instead of sleeping for a fixed time.
+ * It returns as soon as the chosen strategy reports the UI quiet for the configured
+ * quiet period, and gives up at the maximum bound.
+ */
+public class UiIdleDetector {
+
+    // UiAutomator2 server default for waitForIdleTimeout
+    private static final long DEFAULT_WAIT_FOR_IDLE_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * A way of deciding that the UI has settled
+     */
+    public interface Strategy {
+        /**
+         * Block until the UI is idle or the maximum wait has passed
+         * @param driver AndroidDriver instance
+         * @param quietPeriod How long the UI must stay unchanged
+         * @param maxWait Upper bound for the whole wait
+         * @return true if the UI settled within maxWait
+         */
+        boolean awaitIdle(AndroidDriver driver, Duration quietPeriod, Duration maxWait);
+    }
+
+    /**
+     * Idle once consecutive page-source hashes stay identical for the quiet period
+     */
+    public static final Strategy PAGE_SOURCE_HASH = sampling(driver -> driver.getPageSource().hashCode());
+
+    /**
+     * Idle once the foreground activity stays the same for the quiet period.
+     * Cheap, but blind to changes inside a single activity.
+     */
+    public static final Strategy STABLE_ACTIVITY = sampling(AndroidDriver::currentActivity);
+
+    /**
+     * Let the UiAutomator2 server wait for the device's own idle state, then confirm it.
+     * Raises the waitForIdleTimeout setting to the maximum bound for one lookup, then restores
+     * it, to the server default if it was never set. The server doesn't say whether idle was
+     * reached, so the answer comes from page-source hashing over the remaining time, which
+     * usually settles after the first quiet period because the server already waited. With a
+     * zero quiet period the server's wait is trusted and no page source is fetched.
+     */
+    public static final Strategy UIAUTOMATOR_IDLE = (driver, quietPeriod, maxWait) -> {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        Object previousTimeout = driver.getSettings().get(Setting.WAIT_FOR_IDLE_TIMEOUT.toString());
+        driver.setSetting(Setting.WAIT_FOR_IDLE_TIMEOUT, maxWait.toMillis());
+        try (ImplicitWaitScope ignored = ImplicitWaitScope.disable(driver)) {
+            // Any UiAutomator lookup makes the server wait for idle first
+            driver.findElements(By.id("android:id/content"));
+        } finally {
+            driver.setSetting(Setting.WAIT_FOR_IDLE_TIMEOUT,
+                    previousTimeout != null ? previousTimeout : DEFAULT_WAIT_FOR_IDLE_TIMEOUT_MILLIS);
+        }
+        long remaining = deadline - System.nanoTime();
+        if (quietPeriod.isZero()) {
+            return remaining > 0;
+        }
+        return remaining > 0 && PAGE_SOURCE_HASH.awaitIdle(driver, quietPeriod, Duration.ofNanos(remaining));
+    };
+
+    private final AndroidDriver driver;
+    private final Strategy strategy;
+    private final Duration quietPeriod;
+
+    /**
+     * Constructor reads the strategy and quiet period from configuration
+     * @param driver AndroidDriver instance
+     */
+    public UiIdleDetector(AndroidDriver driver) {
+        this(driver, strategyFromConfig(),
+                Duration.ofMillis(Long.parseLong(Objects.toString(AppiumConfig.getProperty("ui.idle.quiet.ms"), "500"))));
+    }
+
+    /**
+     * Constructor
+     * @param driver AndroidDriver instance
+     * @param strategy Idle detection strategy
+     * @param quietPeriod How long the UI must stay unchanged
+     */
+    public UiIdleDetector(AndroidDriver driver, Strategy strategy, Duration quietPeriod) {
+        this.driver = driver;
+        this.strategy = strategy;
+        this.quietPeriod = quietPeriod;
+    }
+
+    /**
+     * Wait until the UI is idle
+     * @param maxWait Upper bound for the wait
+     * @return true if the UI settled within maxWait
+     */
+    public boolean awaitIdle(Duration maxWait) {
+        return strategy.awaitIdle(driver, quietPeriod, maxWait);
+    }
+
+    /**
+     * Build a strategy that samples a signature of the screen until it stops changing
+     * @param signature Function producing a cheap signature of the current UI state
+     * @return Sampling strategy
+     */
+    public static Strategy sampling(Function<AndroidDriver, Object> signature) {
+        return (driver, quietPeriod, maxWait) -> {
+            long pollMillis = Math.max(50, Math.min(250, quietPeriod.toMillis() / 2));
+            long deadline = System.nanoTime() + maxWait.toNanos();
+            Object last = signature.apply(driver);
+            long stableSince = System.nanoTime();
+
+            while (System.nanoTime() < deadline) {
+                if (System.nanoTime() - stableSince >= quietPeriod.toNanos()) {
+                    return true;
+                }
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                Object current = signature.apply(driver);
+                if (!Objects.equals(current, last)) {
+                    last = current;
+                    stableSince = System.nanoTime();
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Pick the strategy named by "ui.idle.strategy"
+     * @return Configured strategy, page-source hashing by default
+     */
+    private static Strategy strategyFromConfig() {
+        String name = Objects.toString(AppiumConfig.getProperty("ui.idle.strategy"), "page_source_hash");
+        switch (name.trim().toLowerCase()) {
+            case "stable_activity":
+                return STABLE_ACTIVITY;
+            case "uiautomator_idle":
+                return UIAUTOMATOR_IDLE;
+            case "page_source_hash":
+                return PAGE_SOURCE_HASH;
+            default:
+                throw new IllegalArgumentException("Unknown ui.idle.strategy: " + name);
+        }
+    }
+}
@@ -3,21 +3,30 @@ package com.mobiletest.utils;
 import com.mobiletest.config.AppiumConfig;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.*;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * WaitUtils class provides utility methods for various wait operations.
  * Implements explicit waits with customizable timeouts.
+ * Sessions run with no implicit wait, so a lookup is one round trip and the explicit
+ * waits here do all the waiting. If an implicit wait is configured anyway, it is
+ * disabled while an explicit wait runs, so the two never stack.
  */
 public class WaitUtils {
     
     private final AndroidDriver driver;
     private final WebDriverWait wait;
     private final int defaultTimeout;
+    private final UiIdleDetector idleDetector;
+    // Page transitions only let the server wait for idle: one lookup, no page-source polling
+    private final UiIdleDetector pageIdleDetector;
     
     /**
      * Constructor initializes WaitUtils with driver and default timeout
@@ -27,6 +36,8 @@ public class WaitUtils {
         this.driver = driver;
         this.defaultTimeout = AppiumConfig.getExplicitWait();
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(defaultTimeout));
+        this.idleDetector = new UiIdleDetector(driver);
+        this.pageIdleDetector = new UiIdleDetector(driver, UiIdleDetector.UIAUTOMATOR_IDLE, Duration.ZERO);
     }
     
     /**
@@ -35,7 +46,7 @@ public class WaitUtils {
      * @return WebElement once visible
      */
     public WebElement waitForElementVisible(By locator) {
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return until(locator, wait, ExpectedConditions.visibilityOfElementLocated(locator));
     }
     
     /**
@@ -46,7 +57,16 @@ public class WaitUtils {
      */
     public WebElement waitForElementVisible(By locator, int timeoutSeconds) {
         WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-        return customWait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return until(locator, customWait, ExpectedConditions.visibilityOfElementLocated(locator));
+    }
+    
+    /**
+     * Wait for an already located element to be visible
+     * @param element WebElement
+     * @return WebElement once visible
+     */
+    public WebElement waitForElementVisible(WebElement element) {
+        return until(wait, ExpectedConditions.visibilityOf(element));
     }
     
     /**
@@ -55,7 +75,7 @@ public class WaitUtils {
      * @return WebElement once clickable
      */
     public WebElement waitForElementClickable(By locator) {
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        return until(locator, wait, ExpectedConditions.elementToBeClickable(locator));
     }
     
     /**
@@ -66,7 +86,16 @@ public class WaitUtils {
      */
     public WebElement waitForElementClickable(By locator, int timeoutSeconds) {
         WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-        return customWait.until(ExpectedConditions.elementToBeClickable(locator));
+        return until(locator, customWait, ExpectedConditions.elementToBeClickable(locator));
+    }
+    
+    /**
+     * Wait for an already located element to be clickable
+     * @param element WebElement
+     * @return WebElement once clickable
+     */
+    public WebElement waitForElementClickable(WebElement element) {
+        return until(wait, ExpectedConditions.elementToBeClickable(element));
     }
     
     /**
@@ -75,7 +104,18 @@ public class WaitUtils {
      * @return WebElement once present
      */
     public WebElement waitForElementPresent(By locator) {
-        return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+        return until(locator, wait, ExpectedConditions.presenceOfElementLocated(locator));
+    }
+    
+    /**
+     * Wait for element to be present in DOM with custom timeout
+     * @param locator Element locator
+     * @param timeoutSeconds Custom timeout in seconds
+     * @return WebElement once present
+     */
+    public WebElement waitForElementPresent(By locator, int timeoutSeconds) {
+        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
+        return until(locator, customWait, ExpectedConditions.presenceOfElementLocated(locator));
     }
     
     /**
@@ -84,7 +124,7 @@ public class WaitUtils {
      * @return List of WebElements once visible
      */
     public List<WebElement> waitForAllElementsVisible(By locator) {
-        return wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+        return until(locator, wait, ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
     }
     
     /**
@@ -93,7 +133,7 @@ public class WaitUtils {
      * @return true if element becomes invisible
      */
     public boolean waitForElementInvisible(By locator) {
-        return wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
+        return until(locator, wait, ExpectedConditions.invisibilityOfElementLocated(locator));
     }
     
     /**
@@ -103,7 +143,7 @@ public class WaitUtils {
      * @return true if element contains text
      */
     public boolean waitForTextPresent(By locator, String text) {
-        return wait.until(ExpectedConditions.textToBePresentInElementLocated(locator, text));
+        return until(locator, wait, ExpectedConditions.textToBePresentInElementLocated(locator, text));
     }
     
     /**
@@ -113,7 +153,7 @@ public class WaitUtils {
      * @return List of WebElements
      */
     public List<WebElement> waitForNumberOfElements(By locator, int count) {
-        return wait.until(ExpectedConditions.numberOfElementsToBe(locator, count));
+        return until(locator, wait, ExpectedConditions.numberOfElementsToBe(locator, count));
     }
     
     /**
@@ -123,24 +163,139 @@ public class WaitUtils {
      * @return true if element is displayed
      */
     public boolean isElementDisplayed(By locator, int timeoutSeconds) {
+        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
+        int[] attempts = {0};
+        boolean found = false;
+        long start = System.nanoTime();
         try {
-            WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-            customWait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+            until(customWait, webDriver -> {
+                attempts[0]++;
+                return ExpectedConditions.visibilityOfElementLocated(locator).apply(webDriver);
+            });
+            found = true;
             return true;
         } catch (TimeoutException e) {
             return false;
+        } finally {
+            // A check: not being displayed is an answer, not a failed lookup
+            LocatorHealth.recordCheck(locator, System.nanoTime() - start, attempts[0], found);
         }
     }
     
     /**
-     * Wait for page to load completely
-     * @param timeoutSeconds Timeout in seconds
+     * Wait for whichever of several outcomes shows up first.
+     * All locators are polled together, so a branching flow costs as long as its
+     * fastest outcome instead of the full timeout of each outcome checked before it.
+     * @param outcomes Outcome keys mapped to the locator that signals them, in priority order
+     * @return Key of the first outcome whose element is displayed
+     * @throws TimeoutException if no outcome shows up within the default timeout
+     */
+    public <T> T waitForFirst(Map<T, By> outcomes) {
+        return waitForFirst(outcomes, defaultTimeout);
+    }
+    
+    /**
+     * Wait for whichever of several outcomes shows up first, with custom timeout
+     * @param outcomes Outcome keys mapped to the locator that signals them, in priority order
+     * @param timeoutSeconds Custom timeout in seconds
+     * @return Key of the first outcome whose element is displayed
+     * @throws TimeoutException if no outcome shows up in time
+     */
+    public <T> T waitForFirst(Map<T, By> outcomes, int timeoutSeconds) {
+        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
+        customWait.ignoring(StaleElementReferenceException.class);
+        customWait.withMessage("none of the outcomes " + outcomes.keySet() + " appeared");
+        return until(customWait, webDriver -> {
+            for (Map.Entry<T, By> outcome : outcomes.entrySet()) {
+                for (WebElement element : webDriver.findElements(outcome.getValue())) {
+                    if (element.isDisplayed()) {
+                        return outcome.getKey();
+                    }
+                }
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Check right away that no element matches the locator.
+     * Makes a single lookup instead of waiting for a timeout.
+     * @param locator Element locator
+     * @return true if no element matches
+     */
+    public boolean isElementAbsent(By locator) {
+        return !isElementPresent(locator);
+    }
+    
+    /**
+     * Check right away whether any element matches the locator, without waiting
+     * @param locator Element locator
+     * @return true if at least one element matches
+     */
+    public boolean isElementPresent(By locator) {
+        boolean found = false;
+        long start = System.nanoTime();
+        try (ImplicitWaitScope ignored = ImplicitWaitScope.disable(driver)) {
+            found = !driver.findElements(locator).isEmpty();
+            return found;
+        } finally {
+            // A probe: finding nothing is an answer, not a failed lookup
+            LocatorHealth.recordCheck(locator, System.nanoTime() - start, 1, found);
+        }
+    }
+    
+    /**
+     * Run an explicit wait on a locator and record its cost in {@link LocatorHealth}
+     * @param locator Locator the condition polls
+     * @param explicitWait Wait to run
+     * @param condition Condition to wait for
+     * @return Result of the condition
      */
-    public void waitForPageLoad(int timeoutSeconds) {
+    private <T> T until(By locator, WebDriverWait explicitWait, ExpectedCondition<T> condition) {
+        int[] attempts = {0};
+        boolean succeeded = false;
+        long start = System.nanoTime();
         try {
-            Thread.sleep(timeoutSeconds * 1000L);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            T result = until(explicitWait, webDriver -> {
+                attempts[0]++;
+                return condition.apply(webDriver);
+            });
+            succeeded = true;
+            return result;
+        } finally {
+            LocatorHealth.record(locator, System.nanoTime() - start, attempts[0], succeeded);
         }
     }
+    
+    /**
+     * Run an explicit wait with the implicit wait disabled
+     * @param explicitWait Wait to run
+     * @param condition Condition to wait for
+     * @return Result of the condition
+     */
+    private <T> T until(WebDriverWait explicitWait, ExpectedCondition<T> condition) {
+        try (ImplicitWaitScope ignored = ImplicitWaitScope.disable(driver)) {
+            return explicitWait.until(condition);
+        }
+    }
+    
+    /**
+     * Wait for page to load completely.
+     * Returns as soon as the UI has settled, see {@link UiIdleDetector}.
+     * @param timeoutSeconds Maximum time to wait in seconds
+     * @return true if the UI settled within the timeout
+     */
+    public boolean waitForPageLoad(int timeoutSeconds) {
+        return idleDetector.awaitIdle(Duration.ofSeconds(timeoutSeconds));
+    }
+    
+    /**
+     * Wait for the screen to settle after a page transition, bounded by "ui.idle.page.timeout".
+     * Off by default; when enabled, the UiAutomator2 server waits for idle within a single lookup.
+     * @return true if the UI settled, or if the wait is disabled with a timeout of 0
+     */
+    public boolean waitForPageLoad() {
+        int timeoutSeconds = Integer.parseInt(Objects.toString(AppiumConfig.getProperty("ui.idle.page.timeout"), "0"));
+        return timeoutSeconds <= 0 || pageIdleDetector.awaitIdle(Duration.ofSeconds(timeoutSeconds));
+    }
 }
@@ -0,0 +1,94 @@
+package com.mobiletest.pages;
+
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PageCacheTest checks page reuse and eviction, and times page construction with and without the cache.
+ * Pages are built on a driver whose executor answers locally, so no device or server is needed.
+ */
+public class PageCacheTest {
+
+    // Every construction generates element proxy classes, so a few rounds already take seconds
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int TIMED_ROUNDS = 20;
+
+    @Test(description = "The same session gets the same page instance back")
+    public void testPageReusedWithinSession() throws Exception {
+        AndroidDriver driver = offlineDriver();
+        LoginPage first = PageCache.get(driver, LoginPage.class);
+        Assert.assertSame(PageCache.get(driver, LoginPage.class), first);
+        Assert.assertNotSame(PageCache.get(offlineDriver(), LoginPage.class), first,
+                "Another session should get its own page");
+    }
+
+    @Test(description = "Evicting a session drops its pages")
+    public void testEvictDropsSessionPages() throws Exception {
+        AndroidDriver driver = offlineDriver();
+        LoginPage first = PageCache.get(driver, LoginPage.class);
+        PageCache.evict(driver.getSessionId());
+        Assert.assertNotSame(PageCache.get(driver, LoginPage.class), first);
+    }
+
+    @Test(description = "Time page construction with and without the cache")
+    public void testConstructionTiming() throws Exception {
+        AndroidDriver driver = offlineDriver();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            new HomePage(driver);
+            PageCache.get(driver, HomePage.class);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            new HomePage(driver);
+        }
+        long constructedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            PageCache.get(driver, HomePage.class);
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        System.out.printf("HomePage: new %.3f ms, cached %.3f ms per page (%d rounds)%n",
+                constructedNanos / 1e6 / TIMED_ROUNDS, cachedNanos / 1e6 / TIMED_ROUNDS, TIMED_ROUNDS);
+        Assert.assertTrue(cachedNanos < constructedNanos, "Cached pages should be cheaper than new ones");
+    }
+
+    /**
+     * Create a driver whose session exists only locally
+     * @return AndroidDriver that answers every command without a server
+     */
+    private static AndroidDriver offlineDriver() throws Exception {
+        AppiumCommandExecutor executor = new AppiumCommandExecutor(MobileCommand.commandRepository,
+                new URL("http://127.0.0.1:4723")) {
+            @Override
+            public Response execute(Command command) {
+                Response response = new Response(command.getSessionId());
+                if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                    Map<String, Object> capabilities = new HashMap<>();
+                    capabilities.put("platformName", "Android");
+                    capabilities.put("appium:automationName", "UiAutomator2");
+                    response = new Response(new SessionId(UUID.randomUUID().toString()));
+                    response.setValue(capabilities);
+                }
+                response.setState("success");
+                return response;
+            }
+        };
+        return new AndroidDriver(executor, new UiAutomator2Options());
+    }
+}
@@ -0,0 +1,233 @@
+package com.mobiletest.pages;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * PageSnapshotTest checks node table lookups against DOM/XPath lookups on page-source fixtures,
+ * and times both. The fixtures in src/test/resources/pagesource follow the UiAutomator2 dump format
+ * for the app's login, home and search results screens.
+ */
+public class PageSnapshotTest {
+
+    private static final Path FIXTURES = Paths.get("src/test/resources/pagesource");
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int TIMED_ROUNDS = 500;
+
+    private static final List<By> LOCATORS = Arrays.asList(
+            By.id("com.example.app:id/login_button"),
+            By.id("username_input"),
+            By.id("com.example.app:id/item_title"),
+            By.id("item_price"),
+            By.id("android:id/content"),
+            By.id("missing_view"),
+            AppiumBy.accessibilityId("Log in"),
+            AppiumBy.accessibilityId("Add to favorites"),
+            By.className("android.widget.TextView"),
+            By.className("android.widget.ImageButton"),
+            By.xpath("//android.widget.TextView[@text='Sign up']"),
+            By.xpath("//*[@resource-id='com.example.app:id/result_item']//*[contains(@resource-id,'item_title')]"),
+            By.xpath("//*[@clickable='true']"));
+
+    @DataProvider(name = "pageSources")
+    public Object[][] pageSources() {
+        return new Object[][] {{"login_page.xml"}, {"home_page.xml"}, {"search_results_page.xml"}};
+    }
+
+    @Test(dataProvider = "pageSources", description = "Node table lookups find the same nodes as the DOM")
+    public void testFindAllMatchesDom(String fixture) throws Exception {
+        String pageSource = read(fixture);
+        PageSnapshot snapshot = new PageSnapshot(pageSource);
+        Document document = parse(pageSource);
+        Map<Node, Integer> indexes = indexElements(document);
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        Assert.assertEquals(snapshot.size(), indexes.size(), "Node count of " + fixture);
+
+        for (By locator : LOCATORS) {
+            Assert.assertEquals(snapshot.findAll(locator), findInDom(xpath, document, indexes, locator),
+                    fixture + ": " + locator);
+        }
+    }
+
+    @Test(dataProvider = "pageSources", description = "Time parsing and lookups: node table against DOM")
+    public void testLookupTiming(String fixture) throws Exception {
+        String pageSource = read(fixture);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            lookUpInTable(pageSource);
+            lookUpInDom(pageSource);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            lookUpInTable(pageSource);
+        }
+        long tableNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            lookUpInDom(pageSource);
+        }
+        long domNanos = System.nanoTime() - start;
+
+        System.out.printf("%s (%d chars): node table %.3f ms, DOM %.3f ms per snapshot (%d rounds)%n",
+                fixture, pageSource.length(), tableNanos / 1e6 / TIMED_ROUNDS, domNanos / 1e6 / TIMED_ROUNDS,
+                TIMED_ROUNDS);
+    }
+
+    /**
+     * Snapshot a page source and run every non-XPath lookup on the node table
+     * @param pageSource Page source
+     * @return Total matches, so the work can't be optimised away
+     */
+    private static int lookUpInTable(String pageSource) {
+        PageSnapshot snapshot = new PageSnapshot(pageSource);
+        int matches = 0;
+        for (By locator : LOCATORS) {
+            if (!isXPath(locator)) {
+                matches += snapshot.findAll(locator).length;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Parse a page source and run every non-XPath lookup as its XPath equivalent
+     * @param pageSource Page source
+     * @return Total matches, so the work can't be optimised away
+     */
+    private static int lookUpInDom(String pageSource) throws Exception {
+        Document document = parse(pageSource);
+        Map<Node, Integer> indexes = indexElements(document);
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        int matches = 0;
+        for (By locator : LOCATORS) {
+            if (!isXPath(locator)) {
+                matches += findInDom(xpath, document, indexes, locator).length;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Resolve a locator the way the UiAutomator2 server does, with XPath over the DOM
+     * @param xpath XPath evaluator
+     * @param document Parsed page source
+     * @param indexes Node index of each element
+     * @param locator Element locator
+     * @return Matching node indexes in document order
+     */
+    private static int[] findInDom(XPath xpath, Document document, Map<Node, Integer> indexes, By locator)
+            throws Exception {
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        String expression;
+        switch (parameters.using()) {
+            case "id":
+                expression = "//*[@resource-id='" + value + "']";
+                if (!value.contains(":id/") && evaluate(xpath, expression, document, indexes).length == 0) {
+                    // A bare id matches the id part of any package's resource id
+                    String suffix = ":id/" + value;
+                    expression = "//*[substring(@resource-id, string-length(@resource-id) - "
+                            + (suffix.length() - 1) + ") = '" + suffix + "']";
+                }
+                break;
+            case "accessibility id":
+                expression = "//*[@content-desc='" + value + "']";
+                break;
+            case "class name":
+                expression = "//*[@class='" + value + "']";
+                break;
+            default:
+                expression = value;
+                break;
+        }
+        return evaluate(xpath, expression, document, indexes);
+    }
+
+    /**
+     * Evaluate an XPath expression and map the matches to node indexes
+     * @param xpath XPath evaluator
+     * @param expression XPath expression
+     * @param document Parsed page source
+     * @param indexes Node index of each element
+     * @return Matching node indexes in document order
+     */
+    private static int[] evaluate(XPath xpath, String expression, Document document, Map<Node, Integer> indexes)
+            throws Exception {
+        NodeList matches = (NodeList) xpath.evaluate(expression, document, XPathConstants.NODESET);
+        int[] result = new int[matches.getLength()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indexes.get(matches.item(i));
+        }
+        return result;
+    }
+
+    /**
+     * Number the elements below the hierarchy root in document order, as the node table does
+     * @param document Parsed page source
+     * @return Node index of each element
+     */
+    private static Map<Node, Integer> indexElements(Document document) {
+        Map<Node, Integer> indexes = new IdentityHashMap<>();
+        NodeList elements = document.getElementsByTagName("*");
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            if (element != document.getDocumentElement()) {
+                indexes.put(element, indexes.size());
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Check if a locator is an XPath locator
+     * @param locator Element locator
+     * @return true for XPath
+     */
+    private static boolean isXPath(By locator) {
+        return "xpath".equals(((By.Remotable) locator).getRemoteParameters().using());
+    }
+
+    /**
+     * Parse a page source into a DOM
+     * @param pageSource Page source
+     * @return Parsed document
+     */
+    private static Document parse(String pageSource) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new InputSource(new StringReader(pageSource)));
+    }
+
+    /**
+     * Read a recorded page source
+     * @param fixture File name under the fixture directory
+     * @return Page source
+     */
+    private static String read(String fixture) throws IOException {
+        return new String(Files.readAllBytes(FIXTURES.resolve(fixture)), StandardCharsets.UTF_8);
+    }
+}
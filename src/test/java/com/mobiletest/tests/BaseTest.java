@@ -1,15 +1,18 @@
 package com.mobiletest.tests;
 
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
 import com.mobiletest.config.AppiumConfig;
 import com.mobiletest.pages.LoginPage;
-import com.mobiletest.utils.ExtentReportManager;
+import com.mobiletest.pages.PageCache;
+import com.mobiletest.utils.DurationHistory;
 import com.mobiletest.utils.ScreenshotUtils;
+import com.mobiletest.utils.TestEventBus;
 import io.appium.java_client.android.AndroidDriver;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 
+import java.util.Map;
+
 /**
  * BaseTest is the parent class for all test classes.
  * Handles test setup, teardown, and reporting.
@@ -18,7 +21,6 @@ public class BaseTest {
     
     protected AndroidDriver driver;
     protected LoginPage loginPage;
-    protected ExtentTest extentTest;
     
     // Test data
     protected static final String VALID_USERNAME = "testuser";
@@ -26,12 +28,20 @@ public class BaseTest {
     protected static final String INVALID_USERNAME = "invaliduser";
     protected static final String INVALID_PASSWORD = "wrongpassword";
     
+    /**
+     * Suite setup - starts creating device sessions in parallel before any class needs one
+     */
+    @BeforeSuite
+    public void suiteSetUp() {
+        AppiumConfig.prewarmSessions();
+    }
+    
     /**
      * Setup method runs before each test class
      */
     @BeforeClass
     public void classSetUp() {
-        // Initialize driver once per class
+        // Check out a device session for this class's worker thread
         driver = AppiumConfig.getDriver();
     }
     
@@ -41,13 +51,13 @@ public class BaseTest {
      */
     @BeforeMethod
     public void setUp(java.lang.reflect.Method testMethod) {
-        // Create extent test for reporting
+        // Open the report entry here: TestNG runs @BeforeMethod before the listener's onTestStart
         String testName = testMethod.getName();
         String description = testMethod.getAnnotation(org.testng.annotations.Test.class).description();
-        extentTest = ExtentReportManager.createTest(testName, description);
+        TestEventBus.testStarted(testName, description);
         
-        // Initialize login page (app starting point)
-        loginPage = new LoginPage(driver);
+        // Get the login page (app starting point), reused across methods of this session
+        loginPage = PageCache.get(driver, LoginPage.class);
         
         logInfo("Starting test: " + testName);
     }
@@ -64,20 +74,18 @@ public class BaseTest {
             logPass("Test passed: " + testName);
         } else if (result.getStatus() == ITestResult.FAILURE) {
             logFail("Test failed: " + testName);
-            // Capture screenshot on failure
-            String screenshotPath = ScreenshotUtils.captureFailureScreenshot(driver, testName);
-            if (screenshotPath != null) {
-                extentTest.addScreenCaptureFromPath(screenshotPath);
-            }
-            // Log exception
+            // The failure screenshot is taken once, by the listener
             if (result.getThrowable() != null) {
-                extentTest.log(Status.FAIL, result.getThrowable());
+                TestEventBus.log(Status.FAIL, result.getThrowable());
             }
         } else if (result.getStatus() == ITestResult.SKIP) {
             logWarning("Test skipped: " + testName);
         }
         
-        ExtentReportManager.removeTest();
+        boolean completed = result.getStatus() == ITestResult.SUCCESS || result.getStatus() == ITestResult.FAILURE;
+        TestEventBus.testFinished(
+                completed ? DurationHistory.key(result.getTestClass().getName(), testName) : null,
+                result.getEndMillis() - result.getStartMillis());
     }
     
     /**
@@ -85,7 +93,8 @@ public class BaseTest {
      */
     @AfterClass
     public void classTearDown() {
-        // Don't quit driver here to maintain session across test classes
+        // Return the device to the pool; the session stays alive for the next class
+        AppiumConfig.releaseDriver();
     }
     
     /**
@@ -93,10 +102,12 @@ public class BaseTest {
      */
     @AfterSuite
     public void suiteTearDown() {
-        // Flush reports
-        ExtentReportManager.flushReports();
+        // Record how long each device session took to start
+        for (Map.Entry<String, Long> entry : AppiumConfig.getDriverPool().getSessionStartupMillis().entrySet()) {
+            TestEventBus.systemInfo("Session Startup (" + entry.getKey() + ")", entry.getValue() + " ms");
+        }
         
-        // Quit driver
+        // Quit all pooled sessions
         AppiumConfig.quitDriver();
     }
     
@@ -106,9 +117,7 @@ public class BaseTest {
      */
     protected void logInfo(String message) {
         System.out.println("[INFO] " + message);
-        if (extentTest != null) {
-            extentTest.log(Status.INFO, message);
-        }
+        TestEventBus.log(Status.INFO, message);
     }
     
     /**
@@ -117,9 +126,7 @@ public class BaseTest {
      */
     protected void logPass(String message) {
         System.out.println("[PASS] " + message);
-        if (extentTest != null) {
-            extentTest.log(Status.PASS, message);
-        }
+        TestEventBus.log(Status.PASS, message);
     }
     
     /**
@@ -128,9 +135,7 @@ public class BaseTest {
      */
     protected void logFail(String message) {
         System.out.println("[FAIL] " + message);
-        if (extentTest != null) {
-            extentTest.log(Status.FAIL, message);
-        }
+        TestEventBus.log(Status.FAIL, message);
     }
     
     /**
@@ -139,9 +144,7 @@ public class BaseTest {
      */
     protected void logWarning(String message) {
         System.out.println("[WARN] " + message);
-        if (extentTest != null) {
-            extentTest.log(Status.WARNING, message);
-        }
+        TestEventBus.log(Status.WARNING, message);
     }
     
     /**
@@ -149,13 +152,11 @@ public class BaseTest {
      * @param screenshotName Name for the screenshot
      */
     protected void captureScreenshot(String screenshotName) {
-        String screenshotPath = ScreenshotUtils.captureScreenshot(driver, screenshotName);
-        if (screenshotPath != null && extentTest != null) {
-            try {
-                extentTest.addScreenCaptureFromPath(screenshotPath);
-            } catch (Exception e) {
-                logWarning("Failed to attach screenshot: " + e.getMessage());
-            }
+        try {
+            // Only the capture happens here; the file is written and attached in the background
+            TestEventBus.screenshot(screenshotName, ScreenshotUtils.captureScreenshotAsync(driver, screenshotName));
+        } catch (Exception e) {
+            logWarning("Failed to capture screenshot: " + e.getMessage());
         }
     }
 }
@@ -15,8 +15,8 @@ public class HomePageTests extends BaseTest {
     
     @BeforeMethod
     public void loginAndNavigateToHome() {
-        // Login first to access home page
-        homePage = loginPage.login(VALID_USERNAME, VALID_PASSWORD);
+        // Reuse the session's login when possible; log in through the UI only when needed
+        homePage = LoginFixture.ensureLoggedIn(driver, VALID_USERNAME, VALID_PASSWORD);
     }
     
     /**
@@ -158,6 +158,7 @@ public class HomePageTests extends BaseTest {
         logInfo("Attempting to logout");
         
         LoginPage loginPageAfterLogout = homePage.logout();
+        LoginFixture.invalidate(driver);
         Assert.assertTrue(loginPageAfterLogout.isPageLoaded(), "Login page should be displayed after logout");
         
         logPass("Successfully logged out");
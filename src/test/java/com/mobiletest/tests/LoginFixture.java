@@ -0,0 +1,90 @@
+package com.mobiletest.tests;
+
+import com.mobiletest.config.AppiumConfig;
+import com.mobiletest.pages.HomePage;
+import com.mobiletest.pages.LoginPage;
+import com.mobiletest.pages.PageCache;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LoginFixture logs in once per driver session and keeps the app authenticated.
+ * Before each test it restores the home screen as cheaply as possible and only
+ * falls back to a UI login when the app is no longer logged in.
+ */
+public class LoginFixture {
+
+    private static final Set<SessionId> authenticatedSessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private LoginFixture() {
+    }
+
+    /**
+     * Make sure the app is logged in and showing the home page
+     * @param driver AndroidDriver instance
+     * @param username Username for the fallback UI login
+     * @param password Password for the fallback UI login
+     * @return HomePage instance
+     */
+    public static HomePage ensureLoggedIn(AndroidDriver driver, String username, String password) {
+        SessionId sessionId = driver.getSessionId();
+        HomePage homePage = PageCache.get(driver, HomePage.class);
+
+        // Cheapest case - a previous test left us on the home page; one lookup, no waiting
+        if (homePage.isPageLoadedNow()) {
+            authenticatedSessions.add(sessionId);
+            return homePage;
+        }
+
+        // Logged in earlier in this session - bring the app back to its home screen
+        if (authenticatedSessions.contains(sessionId)) {
+            restoreHomeScreen(driver);
+            // The app is starting up again, so give the home page time to appear
+            if (homePage.isPageLoaded()) {
+                return homePage;
+            }
+            authenticatedSessions.remove(sessionId);
+        }
+
+        System.out.println("[INFO] No cached login for this session. Logging in through the UI.");
+        HomePage loggedIn = PageCache.get(driver, LoginPage.class).login(username, password);
+        authenticatedSessions.add(sessionId);
+        return loggedIn;
+    }
+
+    /**
+     * Forget the cached login, e.g. after a test logs out
+     * @param driver AndroidDriver instance
+     */
+    public static void invalidate(AndroidDriver driver) {
+        authenticatedSessions.remove(driver.getSessionId());
+    }
+
+    /**
+     * Return to the home screen of a logged-in app.
+     * Opens the configured home deep link, or restarts the app so it resumes
+     * from its persisted login (requires no.reset=true).
+     * @param driver AndroidDriver instance
+     */
+    private static void restoreHomeScreen(AndroidDriver driver) {
+        String appPackage = AppiumConfig.getProperty("app.package");
+        String deepLink = AppiumConfig.getProperty("auth.home.deeplink");
+        if (deepLink != null && !deepLink.isEmpty()) {
+            Map<String, Object> args = new HashMap<>();
+            args.put("url", deepLink);
+            args.put("package", appPackage);
+            driver.executeScript("mobile: deepLink", args);
+        } else {
+            driver.terminateApp(appPackage);
+            driver.activateApp(appPackage);
+        }
+    }
+}
@@ -176,6 +176,9 @@ public class LoginTests extends BaseTest {
     public void testLoginPageUIElements() {
         logInfo("Verifying login page UI elements");
         
+        // Read the screen once and answer the checks below locally
+        loginPage.takeSnapshot();
+        
         // Verify page is loaded
         Assert.assertTrue(loginPage.isPageLoaded(), "Login page should be loaded");
         
@@ -1,19 +1,24 @@
 package com.mobiletest.tests;
 
 import com.aventstack.extentreports.Status;
-import com.mobiletest.config.AppiumConfig;
+import com.mobiletest.utils.CommandMetrics;
+import com.mobiletest.utils.DurationHistory;
 import com.mobiletest.utils.ExtentReportManager;
+import com.mobiletest.utils.LocatorHealth;
 import com.mobiletest.utils.ScreenshotUtils;
+import com.mobiletest.utils.TestEventBus;
 import io.appium.java_client.android.AndroidDriver;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
 /**
  * TestListener implements ITestListener for custom test event handling.
- * Integrates with ExtentReports for comprehensive test reporting.
+ * Publishes test outcomes to the test event bus and finishes the report once per suite.
  */
-public class TestListener implements ITestListener {
+public class TestListener implements ITestListener, ISuiteListener {
     
     @Override
     public void onStart(ITestContext context) {
@@ -31,45 +36,66 @@ public class TestListener implements ITestListener {
         System.out.println("Skipped: " + context.getSkippedTests().size());
         System.out.println("========================================");
         
-        // Flush extent reports
+        // Attach suite-wide driver command latencies per page
+        String[][] latencyTable = CommandMetrics.getSuiteTable();
+        if (latencyTable.length > 0) {
+            TestEventBus.report("Driver Command Latency", "Suite: " + context.getName(), latencyTable);
+            for (String[] row : latencyTable) {
+                System.out.println(String.join("\t", row));
+            }
+        }
+        
+        // Rank locators by the time they cost, per page, across runs
+        String[][] locatorReport = LocatorHealth.getReport();
+        if (locatorReport.length > 0) {
+            TestEventBus.report("Locator Health", "Slowest and flakiest locators per page", locatorReport);
+        }
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        // Finish the report once per suite, after every test context and @AfterSuite method
+        TestEventBus.runFinished();
         ExtentReportManager.flushReports();
+        
+        // Persist method durations and locator numbers for the next run
+        DurationHistory.save();
+        LocatorHealth.save();
     }
     
     @Override
     public void onTestStart(ITestResult result) {
         String testName = result.getMethod().getMethodName();
         System.out.println("Starting test: " + testName);
-        ExtentReportManager.createTest(testName, result.getMethod().getDescription());
+        CommandMetrics.startTest();
     }
     
     @Override
     public void onTestSuccess(ITestResult result) {
         String testName = result.getMethod().getMethodName();
         System.out.println("Test PASSED: " + testName);
-        
-        if (ExtentReportManager.getTest() != null) {
-            ExtentReportManager.getTest().log(Status.PASS, "Test passed successfully");
-        }
+        attachCommandLatencies();
+        TestEventBus.log(Status.PASS, "Test passed successfully");
     }
     
     @Override
     public void onTestFailure(ITestResult result) {
         String testName = result.getMethod().getMethodName();
         System.out.println("Test FAILED: " + testName);
+        attachCommandLatencies();
+        TestEventBus.log(Status.FAIL, "Test failed: " + result.getThrowable().getMessage());
         
-        // Capture screenshot on failure
-        try {
-            AndroidDriver driver = AppiumConfig.getDriver();
-            String screenshotPath = ScreenshotUtils.captureFailureScreenshot(driver, testName);
-            
-            if (ExtentReportManager.getTest() != null) {
-                ExtentReportManager.getTest().log(Status.FAIL, "Test failed: " + result.getThrowable().getMessage());
-                if (screenshotPath != null) {
-                    ExtentReportManager.getTest().addScreenCaptureFromPath(screenshotPath);
+        // Capture screenshot on failure; it is written and attached in the background
+        if (result.getInstance() instanceof BaseTest) {
+            AndroidDriver driver = ((BaseTest) result.getInstance()).driver;
+            try {
+                if (driver != null) {
+                    String screenshotName = "FAILURE_" + testName;
+                    TestEventBus.screenshot(screenshotName, ScreenshotUtils.captureScreenshotAsync(driver, screenshotName));
                 }
+            } catch (Exception e) {
+                System.err.println("Failed to capture screenshot: " + e.getMessage());
             }
-        } catch (Exception e) {
-            System.err.println("Failed to capture screenshot: " + e.getMessage());
         }
     }
     
@@ -77,9 +103,16 @@ public class TestListener implements ITestListener {
     public void onTestSkipped(ITestResult result) {
         String testName = result.getMethod().getMethodName();
         System.out.println("Test SKIPPED: " + testName);
+        attachCommandLatencies();
         
-        if (ExtentReportManager.getTest() != null) {
-            ExtentReportManager.getTest().log(Status.SKIP, "Test skipped");
+        // A skip caused by a failed configuration method never reaches BaseTest.setUp
+        boolean opened = !TestEventBus.isTestOpen();
+        if (opened) {
+            TestEventBus.testStarted(testName, result.getMethod().getDescription());
+        }
+        TestEventBus.log(Status.SKIP, "Test skipped");
+        if (opened) {
+            TestEventBus.testFinished(null, 0);
         }
     }
     
@@ -87,4 +120,14 @@ public class TestListener implements ITestListener {
     public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
         // Not used
     }
+    
+    /**
+     * Attach the current test's driver command latencies to its report entry
+     */
+    private void attachCommandLatencies() {
+        String[][] latencyTable = CommandMetrics.getTestTable();
+        if (latencyTable.length > 0) {
+            TestEventBus.table(latencyTable);
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package com.mobiletest.tests;
+
+import com.mobiletest.config.AppiumConfig;
+import com.mobiletest.utils.DurationHistory;
+import org.testng.IAlterSuiteListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.xml.XmlSuite;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TestScheduler spreads test classes across the configured devices.
+ * One worker thread is started per device, and classes are queued longest-first
+ * using durations recorded by previous runs, so the slowest class starts early
+ * instead of finishing last.
+ */
+public class TestScheduler implements IAlterSuiteListener, IMethodInterceptor {
+
+    // Estimate for methods that have never run before
+    private static final long DEFAULT_METHOD_MILLIS = 30_000;
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        int devices = AppiumConfig.getDeviceUdids().size();
+        for (XmlSuite suite : suites) {
+            suite.setParallel(XmlSuite.ParallelMode.CLASSES);
+            suite.setThreadCount(devices);
+        }
+        System.out.println("Scheduling test classes across " + devices + " device(s)");
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        // Group methods by class, keeping each class's own (priority) order
+        Map<Class<?>, List<IMethodInstance>> byClass = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            byClass.computeIfAbsent(method.getMethod().getRealClass(), k -> new ArrayList<>()).add(method);
+        }
+
+        Map<Class<?>, Long> estimates = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, List<IMethodInstance>> entry : byClass.entrySet()) {
+            estimates.put(entry.getKey(), estimateMillis(entry.getValue()));
+        }
+
+        List<Class<?>> classes = new ArrayList<>(byClass.keySet());
+        classes.sort(Comparator.comparing((Class<?> c) -> estimates.get(c)).reversed());
+
+        List<IMethodInstance> ordered = new ArrayList<>(methods.size());
+        for (Class<?> testClass : classes) {
+            System.out.println("Queued " + testClass.getSimpleName() + " (~" + estimates.get(testClass) / 1000 + "s)");
+            ordered.addAll(byClass.get(testClass));
+        }
+        return ordered;
+    }
+
+    /**
+     * Estimate how long a group of methods takes from recorded history
+     * @param methods Methods of one test class
+     * @return Estimated duration in milliseconds
+     */
+    private long estimateMillis(List<IMethodInstance> methods) {
+        long total = 0;
+        for (IMethodInstance method : methods) {
+            long duration = DurationHistory.getDuration(DurationHistory.key(
+                    method.getMethod().getRealClass().getName(), method.getMethod().getMethodName()));
+            total += duration >= 0 ? duration : DEFAULT_METHOD_MILLIS;
+        }
+        return total;
+    }
+}
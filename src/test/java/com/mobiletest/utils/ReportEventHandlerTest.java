@@ -0,0 +1,39 @@
+package com.mobiletest.utils;
+
+import com.aventstack.extentreports.model.Media;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ReportEventHandlerTest checks that the Extent report gets screenshots stored after their test finished
+ */
+public class ReportEventHandlerTest {
+
+    @Test(description = "A screenshot attached after TEST_FINISHED still reaches the Extent test")
+    public void testScreenshotAttachedAfterTestFinished() throws Exception {
+        TestEventBus.subscribe("extent-test", ReportEventHandler.TYPES, new ReportEventHandler());
+        String testName = "screenshotAfterFinish_" + System.nanoTime();
+        Path screenshot = Files.createTempFile("failure", ".png");
+        CompletableFuture<Path> stored = new CompletableFuture<>();
+
+        // SCREENSHOT -> TEST_FINISHED -> ATTACHMENT, as when the writer thread finishes after teardown
+        TestEventBus.testStarted(testName, "Extent attachment order");
+        TestEventBus.screenshot("FAILURE_" + testName, stored);
+        TestEventBus.testFinished(null, 0);
+        stored.complete(screenshot);
+        TestEventBus.drain();
+
+        com.aventstack.extentreports.model.Test test = ExtentReportManager.getReporter().getReport().getTestList()
+                .stream()
+                .filter(t -> t.getName().equals(testName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No Extent test named " + testName));
+        Assert.assertTrue(test.getMedia().stream().map(Media::getPath).anyMatch(screenshot.toString()::equals),
+                "Extent test should show the failure screenshot");
+        Files.deleteIfExists(screenshot);
+    }
+}